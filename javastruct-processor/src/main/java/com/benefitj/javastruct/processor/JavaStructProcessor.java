@@ -0,0 +1,710 @@
+package com.benefitj.javastruct.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 编译期生成结构体的编解码器
+ * <p>
+ * 为每个 @JavaStructClass 生成 "类名$$StructCodec"，字段偏移固定、直接读写基本类型，
+ * 并注册到 META-INF/services/com.benefitj.javastruct.GeneratedStructCodec；
+ * 不支持的结构体(自定义转换器、字符串、无法访问的字段等)跳过，运行时仍然反射解析。
+ * <p>
+ * 为每个 @JavaStructView 接口生成 "接口名$$StructView"，getter 直接从数据中读取基本类型；
+ * 结构体或方法不支持时跳过，运行时使用动态代理
+ */
+@SupportedAnnotationTypes({JavaStructProcessor.STRUCT_CLASS, JavaStructProcessor.STRUCT_VIEW})
+public class JavaStructProcessor extends AbstractProcessor {
+
+  static final String STRUCT_CLASS = "com.benefitj.javastruct.JavaStructClass";
+  static final String STRUCT_FIELD = "com.benefitj.javastruct.JavaStructField";
+  static final String STRUCT_VIEW = "com.benefitj.javastruct.JavaStructView";
+  static final String STRUCT_VIEW_TYPE = "com.benefitj.javastruct.StructView";
+  static final String CONVERTER = "com.benefitj.javastruct.convert.Converter";
+  static final String INSTANTIATOR = "com.benefitj.javastruct.Instantiator";
+  static final String SERVICE = "META-INF/services/com.benefitj.javastruct.GeneratedStructCodec";
+  static final String SUFFIX = "$$StructCodec";
+  static final String VIEW_SUFFIX = "$$StructView";
+
+  /**
+   * 支持的字段注解属性
+   */
+  private static final Set<String> FIELD_ATTRIBUTES = new HashSet<>(Arrays.asList(
+      "size", "byteOrder", "converter", "charset", "arrayLength", "unsigned"));
+
+  /**
+   * 生成的编解码器
+   */
+  private final Set<String> generated = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      writeServices();
+      return false;
+    }
+    for (TypeElement annotation : annotations) {
+      boolean view = annotation.getQualifiedName().contentEquals(STRUCT_VIEW);
+      for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+        if (view) {
+          try {
+            ViewModel model = createViewModel(type);
+            if (model != null) {
+              writeView(model);
+            }
+          } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "生成视图失败: " + e, type);
+          }
+          continue;
+        }
+        try {
+          StructModel model = createModel(type);
+          if (model != null) {
+            writeCodec(model);
+            generated.add(model.codecName);
+          }
+        } catch (IOException e) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "生成编解码器失败: " + e, type);
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 解析结构体，不支持时返回 null
+   */
+  StructModel createModel(TypeElement type) {
+    if (type.getModifiers().contains(Modifier.ABSTRACT)
+        || type.getModifiers().contains(Modifier.PRIVATE)
+        || (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))
+        || type.getNestingKind() == NestingKind.LOCAL
+        || type.getNestingKind() == NestingKind.ANONYMOUS
+        || !type.getTypeParameters().isEmpty()) {
+      return skip(type, "不支持的类型");
+    }
+    AnnotationMirror jsc = findAnnotation(type, STRUCT_CLASS);
+    if (jsc == null) {
+      // 继承的注解
+      return skip(type, "未声明@JavaStructClass");
+    }
+    Map<String, Object> classValues = values(jsc);
+    if (!INSTANTIATOR.equals(String.valueOf(classValues.get("instantiator")))) {
+      return skip(type, "自定义实例化器");
+    }
+    boolean hasConstructor = false;
+    for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      hasConstructor |= c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE);
+    }
+    if (!hasConstructor) {
+      return skip(type, "没有无参构造函数");
+    }
+
+    StructModel model = new StructModel(type, processingEnv.getElementUtils().getPackageOf(type));
+    int offset = 0;
+    for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      AnnotationMirror jsf = findAnnotation(field, STRUCT_FIELD);
+      if (jsf == null) {
+        continue;
+      }
+      for (ExecutableElement key : jsf.getElementValues().keySet()) {
+        if (!FIELD_ATTRIBUTES.contains(key.getSimpleName().toString())) {
+          return skip(field, "不支持的属性: " + key.getSimpleName());
+        }
+      }
+      Map<String, Object> values = values(jsf);
+      if (!CONVERTER.equals(String.valueOf(values.get("converter")))) {
+        return skip(field, "自定义转换器");
+      }
+      FieldModel fm = new FieldModel();
+      fm.name = field.getSimpleName().toString();
+      fm.width = (Integer) values.get("size");
+      fm.bigEndian = !"LITTLE_ENDIAN".equals(String.valueOf(values.get("byteOrder")));
+      fm.unsigned = Boolean.TRUE.equals(values.get("unsigned"));
+      fm.offset = offset;
+
+      TypeMirror tm = field.asType();
+      if (tm.getKind() == TypeKind.ARRAY) {
+        TypeMirror component = ((ArrayType) tm).getComponentType();
+        fm.kind = component.getKind();
+        fm.array = true;
+        fm.arrayLength = (Integer) values.get("arrayLength");
+        if (fm.arrayLength < 1 || !isSupported(fm.kind, fm.width)) {
+          return skip(field, "不支持的数组");
+        }
+      } else {
+        fm.kind = tm.getKind();
+        if (!isSupported(fm.kind, fm.width)) {
+          return skip(field, "不支持的字段类型");
+        }
+      }
+      fm.typeName = tm.toString();
+      if (!resolveAccess(type, field, fm)) {
+        return skip(field, "无法访问字段");
+      }
+      offset += fm.array ? fm.width * fm.arrayLength : fm.width;
+      model.fields.add(fm);
+    }
+    model.size = Math.max((Integer) classValues.get("value"), offset);
+    return model;
+  }
+
+  private StructModel skip(Element e, String reason) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "跳过生成编解码器，" + reason, e);
+    return null;
+  }
+
+  /**
+   * 字段的读写方式：非私有字段直接访问，否则使用 getter/setter
+   */
+  private boolean resolveAccess(TypeElement type, VariableElement field, FieldModel fm) {
+    Set<Modifier> modifiers = field.getModifiers();
+    if (modifiers.contains(Modifier.STATIC)) {
+      return false;
+    }
+    if (!modifiers.contains(Modifier.PRIVATE)) {
+      fm.getter = "t." + fm.name;
+      fm.setter = modifiers.contains(Modifier.FINAL) ? null : "t." + fm.name + " = %s";
+      return fm.setter != null;
+    }
+    String property = Character.toUpperCase(fm.name.charAt(0)) + fm.name.substring(1);
+    String getterName = null;
+    String setterName = null;
+    for (ExecutableElement m : ElementFilter.methodsIn(type.getEnclosedElements())) {
+      if (m.getModifiers().contains(Modifier.PRIVATE) || m.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      String name = m.getSimpleName().toString();
+      boolean sameType = processingEnv.getTypeUtils().isSameType(m.getReturnType(), field.asType());
+      if (m.getParameters().isEmpty() && sameType
+          && (name.equals("get" + property) || (name.equals("is" + property) && fm.kind == TypeKind.BOOLEAN))) {
+        getterName = name;
+      } else if (m.getParameters().size() == 1
+          && name.equals("set" + property)
+          && processingEnv.getTypeUtils().isSameType(m.getParameters().get(0).asType(), field.asType())) {
+        setterName = name;
+      }
+    }
+    if (getterName == null || setterName == null) {
+      return false;
+    }
+    fm.getter = "t." + getterName + "()";
+    fm.setter = "t." + setterName + "(%s)";
+    return true;
+  }
+
+  static boolean isSupported(TypeKind kind, int width) {
+    switch (kind) {
+      case BYTE:
+        return width == 1;
+      case SHORT:
+        return width >= 1 && width <= 2;
+      case INT:
+        return width >= 1 && width <= 4;
+      case LONG:
+        return width >= 1 && width <= 8;
+      case FLOAT:
+        return width == 4;
+      case DOUBLE:
+        return width == 8;
+      default:
+        return false;
+    }
+  }
+
+  private AnnotationMirror findAnnotation(Element e, String name) {
+    for (AnnotationMirror am : e.getAnnotationMirrors()) {
+      if (((TypeElement) am.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) {
+        return am;
+      }
+    }
+    return null;
+  }
+
+  private Map<String, Object> values(AnnotationMirror am) {
+    Map<String, Object> values = new HashMap<>();
+    processingEnv.getElementUtils().getElementValuesWithDefaults(am)
+        .forEach((k, v) -> values.put(k.getSimpleName().toString(), v.getValue()));
+    return values;
+  }
+
+  /**
+   * 解析视图接口，结构体或方法不支持时返回 null
+   */
+  ViewModel createViewModel(TypeElement view) {
+    if (view.getKind() != ElementKind.INTERFACE
+        || view.getModifiers().contains(Modifier.PRIVATE)
+        || view.getNestingKind() == NestingKind.LOCAL
+        || !view.getTypeParameters().isEmpty()) {
+      return skipView(view, "不支持的视图类型");
+    }
+    Object value = values(findAnnotation(view, STRUCT_VIEW)).get("value");
+    if (!(value instanceof DeclaredType)) {
+      return skipView(view, "未知的结构体类型");
+    }
+    StructModel struct = createModel((TypeElement) ((DeclaredType) value).asElement());
+    if (struct == null) {
+      return skipView(view, "结构体不支持生成编解码器");
+    }
+    if (!isSelfView(view)) {
+      return skipView(view, "视图需继承 StructView<" + view.getSimpleName() + ">");
+    }
+    ViewModel model = new ViewModel(view, processingEnv.getElementUtils().getPackageOf(view));
+    for (ExecutableElement m : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(view))) {
+      Element owner = m.getEnclosingElement();
+      if (!m.getModifiers().contains(Modifier.ABSTRACT)
+          || ((TypeElement) owner).getQualifiedName().contentEquals(STRUCT_VIEW_TYPE)) {
+        continue;
+      }
+      FieldModel field = null;
+      for (FieldModel f : struct.fields) {
+        if (f.name.equals(propertyName(m.getSimpleName().toString()))) {
+          field = f;
+        }
+      }
+      if (field == null) {
+        return skipView(m, "视图方法没有对应的字段");
+      }
+      String returnType = m.getReturnType().toString();
+      List<? extends VariableElement> params = m.getParameters();
+      if (params.isEmpty() && returnType.equals(field.typeName)) {
+        model.methods.add(new ViewMethod(m, field, false));
+      } else if (params.size() == 1 && field.array
+          && params.get(0).asType().toString().equals(field.typeName)
+          && (returnType.equals(field.typeName) || m.getReturnType().getKind() == TypeKind.VOID)) {
+        model.methods.add(new ViewMethod(m, field, true));
+      } else {
+        return skipView(m, "视图方法与字段类型不一致");
+      }
+    }
+    return model;
+  }
+
+  private ViewModel skipView(Element e, String reason) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "跳过生成视图，" + reason, e);
+    return null;
+  }
+
+  /**
+   * 是否直接继承 StructView&lt;视图本身&gt;
+   */
+  private boolean isSelfView(TypeElement view) {
+    for (TypeMirror tm : view.getInterfaces()) {
+      DeclaredType dt = (DeclaredType) tm;
+      if (((TypeElement) dt.asElement()).getQualifiedName().contentEquals(STRUCT_VIEW_TYPE)) {
+        return dt.getTypeArguments().size() == 1
+            && processingEnv.getTypeUtils().isSameType(dt.getTypeArguments().get(0), view.asType());
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 方法名对应的属性名：getXxx()、isXxx() 或 xxx()，与运行时的 StructViews 一致
+   */
+  static String propertyName(String name) {
+    String property = name;
+    if (name.length() > 3 && name.startsWith("get")) {
+      property = name.substring(3);
+    } else if (name.length() > 2 && name.startsWith("is")) {
+      property = name.substring(2);
+    }
+    return Character.toLowerCase(property.charAt(0)) + property.substring(1);
+  }
+
+  /**
+   * 生成视图的源码：堆数组直接按下标读取，直接缓冲按绝对位置读取
+   */
+  private void writeView(ViewModel model) throws IOException {
+    String viewName = model.type.getQualifiedName().toString();
+    String pkg = model.pkg.isUnnamed() ? "" : model.pkg.getQualifiedName().toString();
+    StringBuilder sb = new StringBuilder();
+    if (!pkg.isEmpty()) {
+      sb.append("package ").append(pkg).append(";\n\n");
+    }
+    sb.append("/**\n * ").append(model.type.getSimpleName())
+        .append(" 的视图，由 JavaStructProcessor 生成，请勿修改\n */\n");
+    sb.append("public final class ").append(model.simpleName).append(" implements ").append(viewName).append(" {\n\n");
+    sb.append("  private byte[] d;\n");
+    sb.append("  private java.nio.ByteBuffer b;\n");
+    sb.append("  private int base;\n");
+    sb.append("  private int offset;\n\n");
+    sb.append("  @Override\n  public ").append(viewName).append(" wrap(byte[] data, int offset) {\n");
+    sb.append("    this.d = data;\n    this.b = null;\n    this.base = offset;\n    this.offset = offset;\n    return this;\n  }\n\n");
+    sb.append("  @Override\n  public ").append(viewName).append(" wrap(java.nio.ByteBuffer data, int offset) {\n");
+    sb.append("    if (data.hasArray()) {\n");
+    sb.append("      this.d = data.array();\n      this.b = null;\n      this.base = data.arrayOffset() + offset;\n");
+    sb.append("    } else {\n");
+    sb.append("      this.d = null;\n      this.b = data;\n      this.base = offset;\n");
+    sb.append("    }\n    this.offset = offset;\n    return this;\n  }\n\n");
+    sb.append("  @Override\n  public int offset() {\n    return offset;\n  }\n\n");
+    sb.append("  @Override\n  public String toString() {\n    return \"").append(model.type.getSimpleName())
+        .append("@\" + offset;\n  }\n\n");
+    sb.append("  private java.nio.ByteBuffer buffer() {\n");
+    sb.append("    if (b == null) {\n      throw new IllegalStateException(\"视图未指向数据\");\n    }\n");
+    sb.append("    return b;\n  }\n");
+
+    Set<String> readers = new TreeSet<>();
+    for (ViewMethod vm : model.methods) {
+      FieldModel f = vm.field;
+      String name = vm.method.getSimpleName().toString();
+      String returnType = vm.method.getReturnType().toString();
+      sb.append("\n  @Override\n  public ").append(returnType).append(" ").append(name);
+      if (!f.array) {
+        sb.append("() {\n");
+        sb.append("    int off = base;\n");
+        sb.append("    if (d != null) {\n");
+        sb.append("      return ").append(readValue(f, "d[%s]", "off", f.offset)).append(";\n");
+        sb.append("    }\n");
+        sb.append("    java.nio.ByteBuffer b = buffer();\n");
+        sb.append("    return ").append(readValue(f, "b.get(%s)", "off", f.offset)).append(";\n");
+        sb.append("  }\n");
+        continue;
+      }
+      readers.add(f.name);
+      if (vm.fill) {
+        sb.append("(").append(f.typeName).append(" a) {\n");
+        sb.append("    if (a.length != ").append(f.arrayLength).append(") {\n");
+        sb.append("      throw new IllegalArgumentException(\"数组长度不匹配，期待长度").append(f.arrayLength)
+            .append("，实际长度\" + a.length);\n");
+        sb.append("    }\n");
+        sb.append(vm.method.getReturnType().getKind() == TypeKind.VOID ? "    " : "    return ")
+            .append("read_").append(f.name).append("(a);\n");
+      } else {
+        String component = f.typeName.substring(0, f.typeName.length() - 2);
+        sb.append("() {\n");
+        sb.append("    return read_").append(f.name).append("(new ").append(component)
+            .append("[").append(f.arrayLength).append("]);\n");
+      }
+      sb.append("  }\n");
+    }
+
+    // 读取数组字段，填充传入的数组
+    for (String fieldName : readers) {
+      FieldModel f = null;
+      for (ViewMethod vm : model.methods) {
+        if (vm.field.name.equals(fieldName)) {
+          f = vm.field;
+        }
+      }
+      String len = String.valueOf(f.arrayLength);
+      sb.append("\n  private ").append(f.typeName).append(" read_").append(f.name).append("(")
+          .append(f.typeName).append(" a) {\n");
+      sb.append("    int off = base;\n");
+      sb.append("    if (d != null) {\n");
+      if (f.kind == TypeKind.BYTE) {
+        sb.append("      System.arraycopy(d, ").append(position("off", f.offset)).append(", a, 0, ").append(len).append(");\n");
+      } else {
+        sb.append("      for (int i = 0, p = ").append(position("off", f.offset)).append("; i < ").append(len)
+            .append("; i++, p += ").append(f.width).append(") {\n");
+        sb.append("        a[i] = ").append(readValue(f, "d[%s]", "p", 0)).append(";\n");
+        sb.append("      }\n");
+      }
+      sb.append("      return a;\n");
+      sb.append("    }\n");
+      sb.append("    java.nio.ByteBuffer b = buffer();\n");
+      sb.append("    for (int i = 0, p = ").append(position("off", f.offset)).append("; i < ").append(len)
+          .append("; i++, p += ").append(f.width).append(") {\n");
+      sb.append("      a[i] = ").append(readValue(f, "b.get(%s)", "p", 0)).append(";\n");
+      sb.append("    }\n");
+      sb.append("    return a;\n");
+      sb.append("  }\n");
+    }
+    sb.append("}\n");
+
+    JavaFileObject file = processingEnv.getFiler().createSourceFile(model.name, model.type);
+    try (Writer w = file.openWriter()) {
+      w.write(sb.toString());
+    }
+  }
+
+  /**
+   * 生成编解码器的源码
+   */
+  private void writeCodec(StructModel model) throws IOException {
+    String typeName = model.type.getQualifiedName().toString();
+    String pkg = model.pkg.isUnnamed() ? "" : model.pkg.getQualifiedName().toString();
+    StringBuilder sb = new StringBuilder();
+    if (!pkg.isEmpty()) {
+      sb.append("package ").append(pkg).append(";\n\n");
+    }
+    sb.append("/**\n * ").append(model.type.getSimpleName())
+        .append(" 的编解码器，由 JavaStructProcessor 生成，请勿修改\n */\n");
+    sb.append("public final class ").append(model.simpleCodecName)
+        .append(" implements com.benefitj.javastruct.GeneratedStructCodec {\n\n");
+    sb.append("  public static final int SIZE = ").append(model.size).append(";\n\n");
+    sb.append("  @Override\n  public Class<?> getType() {\n    return ").append(typeName).append(".class;\n  }\n\n");
+    sb.append("  @Override\n  public int getSize() {\n    return SIZE;\n  }\n\n");
+    sb.append("  @Override\n  public Object newInstance() {\n    return new ").append(typeName).append("();\n  }\n\n");
+
+    // 编码
+    sb.append("  @Override\n  public void encode(Object o, byte[] d, int off) {\n");
+    sb.append("    ").append(typeName).append(" t = (").append(typeName).append(") o;\n");
+    for (FieldModel f : model.fields) {
+      sb.append("    // ").append(f.name).append("\n");
+      if (f.array) {
+        String len = String.valueOf(f.arrayLength);
+        sb.append("    {\n");
+        sb.append("      ").append(f.typeName).append(" a = ").append(f.getter).append(";\n");
+        sb.append("      if (a == null) {\n");
+        sb.append("        java.util.Arrays.fill(d, off + ").append(f.offset).append(", off + ")
+            .append(f.offset + f.width * f.arrayLength).append(", (byte) 0);\n");
+        sb.append("      } else {\n");
+        sb.append("        if (a.length != ").append(len).append(") {\n");
+        sb.append("          throw new IllegalStateException(\"数组长度不匹配，期待长度").append(len)
+            .append("，实际长度\" + a.length);\n");
+        sb.append("        }\n");
+        if (f.kind == TypeKind.BYTE) {
+          sb.append("        System.arraycopy(a, 0, d, off + ").append(f.offset).append(", ").append(len).append(");\n");
+        } else {
+          sb.append("        for (int i = 0, p = off + ").append(f.offset).append("; i < ").append(len)
+              .append("; i++, p += ").append(f.width).append(") {\n");
+          writeValue(sb, "          ", f, "a[i]", "p", 0);
+          sb.append("        }\n");
+        }
+        sb.append("      }\n");
+        sb.append("    }\n");
+      } else {
+        sb.append("    {\n");
+        writeValue(sb, "      ", f, f.getter, "off", f.offset);
+        sb.append("    }\n");
+      }
+    }
+    sb.append("  }\n\n");
+
+    // 解码
+    writeDecode(sb, model, typeName, false);
+    // 解码到已有的对象，复用长度一致的数组
+    writeDecode(sb, model, typeName, true);
+    sb.append("}\n");
+
+    JavaFileObject file = processingEnv.getFiler().createSourceFile(model.codecName, model.type);
+    try (Writer w = file.openWriter()) {
+      w.write(sb.toString());
+    }
+  }
+
+  /**
+   * 生成解码的方法
+   *
+   * @param reuse 是否复用对象中长度一致的数组(decodeInto)
+   */
+  private void writeDecode(StringBuilder sb, StructModel model, String typeName, boolean reuse) {
+    sb.append("  @Override\n  public void ").append(reuse ? "decodeInto" : "decode")
+        .append("(Object o, byte[] d, int off, int length) {\n");
+    sb.append("    ").append(typeName).append(" t = (").append(typeName).append(") o;\n");
+    for (FieldModel f : model.fields) {
+      int limit = f.offset + (f.array ? f.width * f.arrayLength : f.width);
+      sb.append("    // ").append(f.name).append("\n");
+      sb.append("    if (length < ").append(limit).append(") {\n      return;\n    }\n");
+      if (f.array) {
+        String len = String.valueOf(f.arrayLength);
+        String component = f.typeName.substring(0, f.typeName.length() - 2);
+        sb.append("    {\n");
+        if (reuse) {
+          sb.append("      ").append(f.typeName).append(" a = ").append(f.getter).append(";\n");
+          sb.append("      if (a == null || a.length != ").append(len).append(") {\n");
+          sb.append("        a = new ").append(component).append("[").append(len).append("];\n");
+          sb.append("        ").append(String.format(f.setter, "a")).append(";\n");
+          sb.append("      }\n");
+        } else {
+          sb.append("      ").append(f.typeName).append(" a = new ").append(component).append("[").append(len).append("];\n");
+        }
+        if (f.kind == TypeKind.BYTE) {
+          sb.append("      System.arraycopy(d, off + ").append(f.offset).append(", a, 0, ").append(len).append(");\n");
+        } else {
+          sb.append("      for (int i = 0, p = off + ").append(f.offset).append("; i < ").append(len)
+              .append("; i++, p += ").append(f.width).append(") {\n");
+          sb.append("        a[i] = ").append(readValue(f, "p", 0)).append(";\n");
+          sb.append("      }\n");
+        }
+        if (!reuse) {
+          sb.append("      ").append(String.format(f.setter, "a")).append(";\n");
+        }
+        sb.append("    }\n");
+      } else {
+        sb.append("    ").append(String.format(f.setter, readValue(f, "off", f.offset))).append(";\n");
+      }
+    }
+    sb.append("  }\n\n");
+  }
+
+  /**
+   * 写入基本类型的值
+   */
+  private void writeValue(StringBuilder sb, String indent, FieldModel f, String value, String base, int offset) {
+    boolean wide = f.kind == TypeKind.LONG || f.kind == TypeKind.DOUBLE;
+    String expr;
+    if (f.kind == TypeKind.FLOAT) {
+      expr = "Float.floatToIntBits(" + value + ")";
+    } else if (f.kind == TypeKind.DOUBLE) {
+      expr = "Double.doubleToLongBits(" + value + ")";
+    } else {
+      expr = value;
+    }
+    sb.append(indent).append(wide ? "long" : "int").append(" v = ").append(expr).append(";\n");
+    for (int k = 0; k < f.width; k++) {
+      // k为字节的权重顺序，0为最高位
+      int index = f.bigEndian ? k : f.width - 1 - k;
+      int shift = 8 * (f.width - 1 - k);
+      sb.append(indent).append("d[").append(position(base, offset + index)).append("] = (byte) ")
+          .append(shift > 0 ? "(v >> " + shift + ")" : "v").append(";\n");
+    }
+  }
+
+  /**
+   * 读取基本类型的值，有符号时最高位字节不做掩码以保留符号
+   */
+  private String readValue(FieldModel f, String base, int offset) {
+    return readValue(f, "d[%s]", base, offset);
+  }
+
+  /**
+   * 读取基本类型的值
+   *
+   * @param src 读取单个字节的表达式，如 "d[%s]"、"b.get(%s)"
+   */
+  private String readValue(FieldModel f, String src, String base, int offset) {
+    if (f.kind == TypeKind.BYTE) {
+      return String.format(src, position(base, offset));
+    }
+    boolean wide = f.kind == TypeKind.LONG || f.kind == TypeKind.DOUBLE;
+    StringBuilder expr = new StringBuilder();
+    for (int k = 0; k < f.width; k++) {
+      int index = f.bigEndian ? k : f.width - 1 - k;
+      int shift = 8 * (f.width - 1 - k);
+      String b = String.format(src, position(base, offset + index));
+      if (k > 0 || f.unsigned) {
+        b = "(" + b + " & 0xFF)";
+      }
+      if (k > 0) {
+        expr.append(" | ");
+      }
+      if (wide) {
+        b = "(long) " + b;
+      }
+      expr.append(shift > 0 ? "(" + b + " << " + shift + ")" : b);
+    }
+    switch (f.kind) {
+      case SHORT:
+        return "(short) (" + expr + ")";
+      case FLOAT:
+        return "Float.intBitsToFloat(" + expr + ")";
+      case DOUBLE:
+        return "Double.longBitsToDouble(" + expr + ")";
+      default:
+        return f.width > 1 ? "(" + expr + ")" : expr.toString();
+    }
+  }
+
+  private static String position(String base, int offset) {
+    return offset > 0 ? base + " + " + offset : base;
+  }
+
+  /**
+   * 注册生成的编解码器
+   */
+  private void writeServices() {
+    if (generated.isEmpty()) {
+      return;
+    }
+    try {
+      FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE);
+      try (Writer w = file.openWriter()) {
+        for (String name : generated) {
+          w.write(name);
+          w.write("\n");
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "注册编解码器失败: " + e);
+    }
+  }
+
+  static final class StructModel {
+    final TypeElement type;
+    final PackageElement pkg;
+    final String simpleCodecName;
+    final String codecName;
+    final List<FieldModel> fields = new ArrayList<>();
+    int size;
+
+    StructModel(TypeElement type, PackageElement pkg) {
+      this.type = type;
+      this.pkg = pkg;
+      String binaryName = type.getQualifiedName().toString();
+      String pkgName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+      String simple = pkgName.isEmpty() ? binaryName : binaryName.substring(pkgName.length() + 1);
+      this.simpleCodecName = simple.replace('.', '_') + SUFFIX;
+      this.codecName = pkgName.isEmpty() ? simpleCodecName : pkgName + "." + simpleCodecName;
+    }
+  }
+
+  static final class FieldModel {
+    String name;
+    String typeName;
+    TypeKind kind;
+    boolean array;
+    int arrayLength;
+    int width;
+    boolean bigEndian;
+    boolean unsigned;
+    int offset;
+    String getter;
+    String setter;
+  }
+
+  static final class ViewModel {
+    final TypeElement type;
+    final PackageElement pkg;
+    final String simpleName;
+    final String name;
+    final List<ViewMethod> methods = new ArrayList<>();
+
+    ViewModel(TypeElement type, PackageElement pkg) {
+      this.type = type;
+      this.pkg = pkg;
+      String binaryName = type.getQualifiedName().toString();
+      String pkgName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+      String simple = pkgName.isEmpty() ? binaryName : binaryName.substring(pkgName.length() + 1);
+      this.simpleName = simple.replace('.', '_') + VIEW_SUFFIX;
+      this.name = pkgName.isEmpty() ? simpleName : pkgName + "." + simpleName;
+    }
+  }
+
+  static final class ViewMethod {
+    final ExecutableElement method;
+    final FieldModel field;
+    /**
+     * 是否填充传入的数组
+     */
+    final boolean fill;
+
+    ViewMethod(ExecutableElement method, FieldModel field, boolean fill) {
+      this.method = method;
+      this.field = field;
+      this.fill = fill;
+    }
+  }
+
+}
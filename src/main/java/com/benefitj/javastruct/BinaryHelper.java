@@ -20,9 +20,6 @@ public class BinaryHelper {
       "1000", "1001", "1010", "1011", "1100", "1101", "1110", "1111"
   };
 
-  private static final char[] HEX_CHARS =
-      new char[]{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
-
 
   private static byte[][] MASKS = new byte[][]{
       {0b00000001, 0b00000010, 0b00000100, 0b00001000, 0b00010000, 0b00100000, 0b01000000, (byte) 0b10000000},
@@ -492,6 +489,120 @@ public class BinaryHelper {
     return value;
   }
 
+  /**
+   * 从数组的指定位置读取短整数，不创建临时数组
+   *
+   * @param src    数据
+   * @param off    开始的位置
+   * @param width  字节长度
+   * @param order  字节序
+   * @param signed 是否为有符号整数，有符号时按字节长度的最高位扩展符号
+   * @return 返回短整数
+   */
+  public short readShort(byte[] src, int off, int width, ByteOrder order, boolean signed) {
+    return (short) readLong(src, off, width, order, signed);
+  }
+
+  /**
+   * 从数组的指定位置读取整数，不创建临时数组
+   *
+   * @param src    数据
+   * @param off    开始的位置
+   * @param width  字节长度
+   * @param order  字节序
+   * @param signed 是否为有符号整数，有符号时按字节长度的最高位扩展符号
+   * @return 返回整数
+   */
+  public int readInt(byte[] src, int off, int width, ByteOrder order, boolean signed) {
+    return (int) readLong(src, off, width, order, signed);
+  }
+
+  /**
+   * 从数组的指定位置读取长整数，不创建临时数组；超过8个字节时只保留低8个字节
+   *
+   * @param src    数据
+   * @param off    开始的位置
+   * @param width  字节长度
+   * @param order  字节序
+   * @param signed 是否为有符号整数，有符号时按字节长度的最高位扩展符号
+   * @return 返回长整数
+   */
+  public long readLong(byte[] src, int off, int width, ByteOrder order, boolean signed) {
+    if (width >= 1 && width <= 8) {
+      // 按长度展开读取，不使用循环
+      return IntegerBytes.getInteger(src, off, width, order == ByteOrder.BIG_ENDIAN, !signed);
+    }
+    long value = 0;
+    if (order == ByteOrder.BIG_ENDIAN) {
+      // 大端字节顺序：高位在前，低位在后
+      for (int i = 0; i < width; i++) {
+        value = (value << 8) | (src[off + i] & 0xFF);
+      }
+    } else {
+      // 小端字节顺序：低位在前，高位在后
+      for (int i = width - 1; i >= 0; i--) {
+        value = (value << 8) | (src[off + i] & 0xFF);
+      }
+    }
+    if (signed && width < 8) {
+      int shift = 64 - (width << 3);
+      value = (value << shift) >> shift;
+    }
+    return value;
+  }
+
+  /**
+   * 写入短整数到数组的指定位置，不创建临时数组
+   *
+   * @param dst   目标数组
+   * @param off   开始的位置
+   * @param width 字节长度
+   * @param value 数值
+   * @param order 字节序
+   */
+  public void writeShort(byte[] dst, int off, int width, short value, ByteOrder order) {
+    writeLong(dst, off, width, value, order);
+  }
+
+  /**
+   * 写入整数到数组的指定位置，不创建临时数组
+   *
+   * @param dst   目标数组
+   * @param off   开始的位置
+   * @param width 字节长度
+   * @param value 数值
+   * @param order 字节序
+   */
+  public void writeInt(byte[] dst, int off, int width, int value, ByteOrder order) {
+    writeLong(dst, off, width, value, order);
+  }
+
+  /**
+   * 写入长整数到数组的指定位置，不创建临时数组；
+   * 字节长度小于类型长度时保留低位，大于类型长度时扩展符号
+   *
+   * @param dst   目标数组
+   * @param off   开始的位置
+   * @param width 字节长度
+   * @param value 数值
+   * @param order 字节序
+   */
+  public void writeLong(byte[] dst, int off, int width, long value, ByteOrder order) {
+    if (width >= 1 && width <= 8) {
+      IntegerBytes.putInteger(dst, off, width, value, order == ByteOrder.BIG_ENDIAN);
+      return;
+    }
+    if (order == ByteOrder.BIG_ENDIAN) {
+      for (int i = width - 1; i >= 0; i--, value >>= 8) {
+        dst[off + i] = (byte) value;
+      }
+    } else {
+      for (int i = 0; i < width; i++, value >>= 8) {
+        dst[off + i] = (byte) value;
+      }
+    }
+  }
+
   /**
    * 整形转换成16进制
    *
@@ -647,6 +758,9 @@ public class BinaryHelper {
    * @return 返回16进制字符串或空
    */
   public String bytesToHex(byte[] bin, boolean lowerCase, final String fill, int length) {
+    if (fill == null) {
+      return isEmpty(bin) ? null : HexCodec.toHex(bin, 0, bin.length, lowerCase);
+    }
     String hex = lowerCase ? HEX_LOWER_CASE : HEX_UPPER_CASE;
     final int split = Math.max(length, 1);
     return bytesToHex(bin, (sb, b, index) -> {
@@ -686,6 +800,9 @@ public class BinaryHelper {
     if (isEmpty(bin)) {
       return null;
     }
+    if (prefix == null && suffix == null) {
+      return HexCodec.toHex(bin, 0, bin.length, lowerCase);
+    }
     String hex = lowerCase ? HEX_LOWER_CASE : HEX_UPPER_CASE;
     final int split = Math.max(length, 1);
     StringBuilder sb = new StringBuilder();
@@ -745,32 +862,13 @@ public class BinaryHelper {
    */
   public byte[] hexToBytes(String hex, byte[] defaultValue) {
     if (isNotEmpty(hex)) {
-      int length = hex.length() / 2;
-      char[] ch = hex.toUpperCase().toCharArray();
-      byte[] bin = getCache(length);
-
-      char high;
-      char low;
-      for (int i = 0; i < length; ++i) {
-        high = ch[i * 2];
-        low = ch[i * 2 + 1];
-        bin[i] = (byte) (charToByte(high) << 4 | charToByte(low));
-      }
+      byte[] bin = getCache(hex.length() / 2);
+      HexCodec.decode(hex, bin, 0);
       return bin;
     }
     return defaultValue;
   }
 
-  private byte charToByte(char c) {
-    for (int i = 0; i < HEX_CHARS.length; i++) {
-      if (HEX_CHARS[i] == c) {
-        return (byte) i;
-      }
-    }
-    return -1;
-    // return (byte) "0123456789ABCDEF".indexOf(c);
-  }
-
   /**
    * 是否相等
    *
@@ -0,0 +1,379 @@
+package com.benefitj.javastruct;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 编译后的编解码器：解析结构体时为每个字段生成专用的编解码器，再按固定偏移把所有字段串联成一个 MethodHandle。
+ * <p>
+ * 基本类型的字段直接组合整数读写和字段的 getter/setter，其余字段绑定各自的编解码器；
+ * 编解码时只调用一次串联后的 MethodHandle，JIT 按常量展开每个字段，不经过字段编解码器接口的多态分派。
+ * 数据长度不足时按字段逐个解码，多余的字段不做处理
+ */
+public class CompiledStructCodec implements StructCodec {
+
+  private static final MethodHandle ENCODE_ARRAY;
+  private static final MethodHandle ENCODE_BUFFER;
+  private static final MethodHandle DECODE_ARRAY;
+  private static final MethodHandle DECODE_BUFFER;
+  private static final MethodHandle DECODE_INTO_ARRAY;
+  private static final MethodHandle DECODE_INTO_BUFFER;
+  /**
+   * (byte[] / ByteBuffer, int, int, boolean, boolean)long
+   */
+  private static final MethodHandle GET_INTEGER_ARRAY;
+  private static final MethodHandle GET_INTEGER_BUFFER;
+  /**
+   * (byte[] / ByteBuffer, int, int, long, boolean)void
+   */
+  private static final MethodHandle PUT_INTEGER_ARRAY;
+  private static final MethodHandle PUT_INTEGER_BUFFER;
+  private static final MethodHandle INT_BITS_TO_FLOAT;
+  private static final MethodHandle FLOAT_TO_INT_BITS;
+  private static final MethodHandle LONG_BITS_TO_DOUBLE;
+  private static final MethodHandle DOUBLE_TO_LONG_BITS;
+  /**
+   * (int, int)int：记录的开始位置加上字段的偏移
+   */
+  private static final MethodHandle POSITION;
+  private static final MethodHandle NOOP;
+
+  static {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      MethodType arrayType = MethodType.methodType(void.class, Object.class, byte[].class, int.class);
+      MethodType bufferType = MethodType.methodType(void.class, Object.class, ByteBuffer.class, int.class);
+      ENCODE_ARRAY = lookup.findVirtual(FieldCodec.class, "encode", arrayType);
+      ENCODE_BUFFER = lookup.findVirtual(FieldCodec.class, "encode", bufferType);
+      DECODE_ARRAY = lookup.findVirtual(FieldCodec.class, "decode", arrayType);
+      DECODE_BUFFER = lookup.findVirtual(FieldCodec.class, "decode", bufferType);
+      DECODE_INTO_ARRAY = lookup.findVirtual(FieldCodec.class, "decodeInto", arrayType);
+      DECODE_INTO_BUFFER = lookup.findVirtual(FieldCodec.class, "decodeInto", bufferType);
+      GET_INTEGER_ARRAY = lookup.findStatic(IntegerBytes.class, "getInteger", MethodType.methodType(
+          long.class, byte[].class, int.class, int.class, boolean.class, boolean.class));
+      GET_INTEGER_BUFFER = lookup.findStatic(IntegerBytes.class, "getInteger", MethodType.methodType(
+          long.class, ByteBuffer.class, int.class, int.class, boolean.class, boolean.class));
+      PUT_INTEGER_ARRAY = lookup.findStatic(IntegerBytes.class, "putInteger", MethodType.methodType(
+          void.class, byte[].class, int.class, int.class, long.class, boolean.class));
+      PUT_INTEGER_BUFFER = lookup.findStatic(IntegerBytes.class, "putInteger", MethodType.methodType(
+          void.class, ByteBuffer.class, int.class, int.class, long.class, boolean.class));
+      INT_BITS_TO_FLOAT = lookup.findStatic(Float.class, "intBitsToFloat", MethodType.methodType(float.class, int.class));
+      FLOAT_TO_INT_BITS = lookup.findStatic(Float.class, "floatToIntBits", MethodType.methodType(int.class, float.class));
+      LONG_BITS_TO_DOUBLE = lookup.findStatic(Double.class, "longBitsToDouble", MethodType.methodType(double.class, long.class));
+      DOUBLE_TO_LONG_BITS = lookup.findStatic(Double.class, "doubleToLongBits", MethodType.methodType(long.class, double.class));
+      POSITION = lookup.findStatic(CompiledStructCodec.class, "position", MethodType.methodType(int.class, int.class, int.class));
+      NOOP = lookup.findStatic(CompiledStructCodec.class, "noop", MethodType.methodType(void.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * 字段编解码器
+   */
+  private final FieldCodec[] codecs;
+  /**
+   * 字段的偏移
+   */
+  private final int[] positions;
+  /**
+   * 字段的结束位置
+   */
+  private final int[] limits;
+  /**
+   * 字段占用的总长度
+   */
+  private final int dataSize;
+  /**
+   * 串联后的编解码：(Object, byte[] / ByteBuffer, int)void
+   */
+  private final MethodHandle encodeArray;
+  private final MethodHandle encodeBuffer;
+  private final MethodHandle decodeArray;
+  private final MethodHandle decodeBuffer;
+  private final MethodHandle decodeIntoArray;
+  private final MethodHandle decodeIntoBuffer;
+
+  public CompiledStructCodec(StructPlan plan) {
+    int size = plan.length();
+    FieldCodec[] codecs = new FieldCodec[size];
+    StructField[] scalars = new StructField[size];
+    int[] positions = new int[size];
+    int[] limits = new int[size];
+    int count = 0;
+    for (int i = 0; i < size; i++, count++) {
+      if (plan.field(i).isBitField()) {
+        // 同一个单元的位域合并为一个编解码器
+        int end = FieldCodecs.bitUnitEnd(plan, i);
+        codecs[count] = FieldCodecs.createBitUnit(FieldCodecs.bitUnitMembers(plan, i, end));
+        i = end - 1;
+      } else {
+        codecs[count] = FieldCodecs.create(plan.field(i));
+        scalars[count] = isScalar(plan.field(i)) ? plan.field(i) : null;
+      }
+      positions[count] = plan.offset(i);
+      limits[count] = plan.limit(i);
+    }
+    this.codecs = Arrays.copyOf(codecs, count);
+    this.positions = Arrays.copyOf(positions, count);
+    this.limits = Arrays.copyOf(limits, count);
+    this.dataSize = plan.getSize();
+
+    MethodHandle[] encodeArray = new MethodHandle[count];
+    MethodHandle[] encodeBuffer = new MethodHandle[count];
+    MethodHandle[] decodeArray = new MethodHandle[count];
+    MethodHandle[] decodeBuffer = new MethodHandle[count];
+    MethodHandle[] decodeIntoArray = new MethodHandle[count];
+    MethodHandle[] decodeIntoBuffer = new MethodHandle[count];
+    for (int i = 0; i < count; i++) {
+      int position = positions[i];
+      StructField scalar = scalars[i];
+      FieldCodec codec = codecs[i];
+      if (scalar != null) {
+        encodeArray[i] = at(encodeScalar(scalar, byte[].class, PUT_INTEGER_ARRAY), position);
+        encodeBuffer[i] = at(encodeScalar(scalar, ByteBuffer.class, PUT_INTEGER_BUFFER), position);
+        decodeArray[i] = at(decodeScalar(scalar, GET_INTEGER_ARRAY), position);
+        decodeBuffer[i] = at(decodeScalar(scalar, GET_INTEGER_BUFFER), position);
+        decodeIntoArray[i] = decodeArray[i];
+        decodeIntoBuffer[i] = decodeBuffer[i];
+      } else {
+        encodeArray[i] = at(ENCODE_ARRAY.bindTo(codec), position);
+        encodeBuffer[i] = at(ENCODE_BUFFER.bindTo(codec), position);
+        decodeArray[i] = at(DECODE_ARRAY.bindTo(codec), position);
+        decodeBuffer[i] = at(DECODE_BUFFER.bindTo(codec), position);
+        decodeIntoArray[i] = at(DECODE_INTO_ARRAY.bindTo(codec), position);
+        decodeIntoBuffer[i] = at(DECODE_INTO_BUFFER.bindTo(codec), position);
+      }
+    }
+    this.encodeArray = chain(encodeArray, byte[].class);
+    this.encodeBuffer = chain(encodeBuffer, ByteBuffer.class);
+    this.decodeArray = chain(decodeArray, byte[].class);
+    this.decodeBuffer = chain(decodeBuffer, ByteBuffer.class);
+    this.decodeIntoArray = chain(decodeIntoArray, byte[].class);
+    this.decodeIntoBuffer = chain(decodeIntoBuffer, ByteBuffer.class);
+  }
+
+  @Override
+  public void encode(Object o, byte[] dest, int offset) {
+    try {
+      encodeArray.invokeExact(o, dest, offset);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  @Override
+  public void encode(Object o, ByteBuffer dest, int offset, int size) {
+    try {
+      encodeBuffer.invokeExact(o, dest, offset);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+    FieldCodecs.fillZero(dest, offset + dataSize, offset + size);
+  }
+
+  @Override
+  public void decode(Object o, byte[] data, int offset, int length) {
+    decode(o, data, offset, length, false);
+  }
+
+  @Override
+  public void decodeInto(Object o, byte[] data, int offset, int length) {
+    decode(o, data, offset, length, true);
+  }
+
+  @Override
+  public void decode(Object o, ByteBuffer data, int offset, int length) {
+    decode(o, data, offset, length, false);
+  }
+
+  @Override
+  public void decodeInto(Object o, ByteBuffer data, int offset, int length) {
+    decode(o, data, offset, length, true);
+  }
+
+  /**
+   * 解码
+   *
+   * @param reuse 是否复用对象中长度一致的数组
+   */
+  protected void decode(Object o, byte[] data, int offset, int length, boolean reuse) {
+    if (length >= dataSize) {
+      try {
+        if (reuse) {
+          decodeIntoArray.invokeExact(o, data, offset);
+        } else {
+          decodeArray.invokeExact(o, data, offset);
+        }
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+      return;
+    }
+    final FieldCodec[] codecs = this.codecs;
+    final int[] positions = this.positions;
+    final int[] limits = this.limits;
+    for (int i = 0; i < codecs.length; i++) {
+      if (limits[i] > length) {
+        // 多余数据不做处理
+        break;
+      }
+      if (reuse) {
+        codecs[i].decodeInto(o, data, offset + positions[i]);
+      } else {
+        codecs[i].decode(o, data, offset + positions[i]);
+      }
+    }
+  }
+
+  /**
+   * 按绝对位置从缓冲中解码，堆缓冲直接读取底层数组
+   *
+   * @param reuse 是否复用对象中长度一致的数组
+   */
+  protected void decode(Object o, ByteBuffer data, int offset, int length, boolean reuse) {
+    if (data.hasArray()) {
+      decode(o, data.array(), data.arrayOffset() + offset, length, reuse);
+      return;
+    }
+    if (length >= dataSize) {
+      try {
+        if (reuse) {
+          decodeIntoBuffer.invokeExact(o, data, offset);
+        } else {
+          decodeBuffer.invokeExact(o, data, offset);
+        }
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+      return;
+    }
+    final FieldCodec[] codecs = this.codecs;
+    final int[] positions = this.positions;
+    final int[] limits = this.limits;
+    for (int i = 0; i < codecs.length; i++) {
+      if (limits[i] > length) {
+        // 多余数据不做处理
+        break;
+      }
+      if (reuse) {
+        codecs[i].decodeInto(o, data, offset + positions[i]);
+      } else {
+        codecs[i].decode(o, data, offset + positions[i]);
+      }
+    }
+  }
+
+  /**
+   * 是否为可以直接组合读写的基本类型字段：默认转换器、非数组，且字段访问器基于 MethodHandle
+   */
+  static boolean isScalar(StructField field) {
+    return !field.isBitField()
+        && field.getType().isPrimitive()
+        && field.getType() != boolean.class
+        && FieldCodecs.isInlinable(field)
+        && field.getAccessor() instanceof FieldAccessor.MethodHandleAccessor;
+  }
+
+  /**
+   * 基本类型字段的解码：setter(o, (字段类型) getInteger(data, position, ...))
+   *
+   * @param field      字段
+   * @param getInteger 读取整数
+   * @return 返回 (Object, 数据, int)void
+   */
+  private static MethodHandle decodeScalar(StructField field, MethodHandle getInteger) {
+    Class<?> type = field.getType();
+    Class<?> dataType = getInteger.type().parameterType(0);
+    boolean unsigned = field.isUnsigned() && type != float.class && type != double.class;
+    // (数据, int)long
+    MethodHandle read = MethodHandles.insertArguments(
+        getInteger, 2, field.getFieldSize(), !field.isLittleEndian(), unsigned);
+    if (type == float.class) {
+      read = MethodHandles.filterReturnValue(MethodHandles.explicitCastArguments(
+          read, MethodType.methodType(int.class, dataType, int.class)), INT_BITS_TO_FLOAT);
+    } else if (type == double.class) {
+      read = MethodHandles.filterReturnValue(read, LONG_BITS_TO_DOUBLE);
+    } else {
+      read = MethodHandles.explicitCastArguments(read, MethodType.methodType(type, dataType, int.class));
+    }
+    MethodHandle setter = ((FieldAccessor.MethodHandleAccessor) field.getAccessor()).typedSetter();
+    return MethodHandles.collectArguments(setter, 1, read);
+  }
+
+  /**
+   * 基本类型字段的编码：putInteger(data, position, ..., (long) getter(o), ...)
+   *
+   * @param field      字段
+   * @param dataType   数据类型：byte[] 或 ByteBuffer
+   * @param putInteger 写入整数
+   * @return 返回 (Object, 数据, int)void
+   */
+  private static MethodHandle encodeScalar(StructField field, Class<?> dataType, MethodHandle putInteger) {
+    Class<?> type = field.getType();
+    // (数据, int, long)void
+    MethodHandle write = MethodHandles.insertArguments(putInteger, 4, !field.isLittleEndian());
+    write = MethodHandles.insertArguments(write, 2, field.getFieldSize());
+    MethodHandle value = ((FieldAccessor.MethodHandleAccessor) field.getAccessor()).typedGetter();
+    if (type == float.class) {
+      value = MethodHandles.filterReturnValue(value, FLOAT_TO_INT_BITS);
+    } else if (type == double.class) {
+      value = MethodHandles.filterReturnValue(value, DOUBLE_TO_LONG_BITS);
+    }
+    value = MethodHandles.explicitCastArguments(value, MethodType.methodType(long.class, Object.class));
+    // (数据, int, Object)void，调整为 (Object, 数据, int)void
+    write = MethodHandles.collectArguments(write, 2, value);
+    return MethodHandles.permuteArguments(write,
+        MethodType.methodType(void.class, Object.class, dataType, int.class), 1, 2, 0);
+  }
+
+  /**
+   * 字段的位置：记录的开始位置加上字段的偏移
+   */
+  private static MethodHandle at(MethodHandle handle, int position) {
+    if (position == 0) {
+      return handle;
+    }
+    return MethodHandles.filterArguments(handle, 2, MethodHandles.insertArguments(POSITION, 1, position));
+  }
+
+  /**
+   * 按顺序串联字段的编解码，二分组合，嵌套深度为 log2(字段数量)
+   */
+  private static MethodHandle chain(MethodHandle[] handles, Class<?> dataType) {
+    if (handles.length == 0) {
+      return MethodHandles.dropArguments(NOOP, 0, Object.class, dataType, int.class);
+    }
+    return chain(handles, 0, handles.length);
+  }
+
+  private static MethodHandle chain(MethodHandle[] handles, int from, int to) {
+    if (to - from == 1) {
+      return handles[from];
+    }
+    int mid = (from + to) >>> 1;
+    // 先执行前半部分，再执行后半部分
+    return MethodHandles.foldArguments(chain(handles, mid, to), chain(handles, from, mid));
+  }
+
+  private static int position(int offset, int position) {
+    return offset + position;
+  }
+
+  private static void noop() {
+  }
+
+  private static RuntimeException rethrow(Throwable e) {
+    if (e instanceof RuntimeException) {
+      return (RuntimeException) e;
+    }
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+    return new IllegalStateException(e);
+  }
+
+}
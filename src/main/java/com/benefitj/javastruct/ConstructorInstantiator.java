@@ -0,0 +1,79 @@
+package com.benefitj.javastruct;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * 构造函数实例化器：每个类型只解析一次无参构造函数，
+ * 公开的构造函数通过 LambdaMetafactory 生成 Supplier，其他的使用 MethodHandle 调用
+ */
+public class ConstructorInstantiator implements Instantiator {
+
+  /**
+   * 类型对应的创建函数
+   */
+  private final ClassValue<Supplier<Object>> suppliers = new ClassValue<Supplier<Object>>() {
+    @Override
+    protected Supplier<Object> computeValue(Class<?> type) {
+      return createSupplier(type);
+    }
+  };
+
+  @Override
+  public Object create(Class<?> type) {
+    return suppliers.get(type).get();
+  }
+
+  /**
+   * 创建类型的构造函数
+   *
+   * @param type 类型
+   * @return 返回创建对象的函数
+   */
+  protected Supplier<Object> createSupplier(Class<?> type) {
+    Constructor<?> constructor;
+    try {
+      constructor = type.getDeclaredConstructor();
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("结构体[" + type.getName() + "]缺少无参构造函数", e);
+    }
+    if (Modifier.isPublic(type.getModifiers()) && Modifier.isPublic(constructor.getModifiers())) {
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflectConstructor(constructor);
+        CallSite site = LambdaMetafactory.metafactory(lookup
+            , "get"
+            , MethodType.methodType(Supplier.class)
+            , MethodType.methodType(Object.class)
+            , handle
+            , MethodType.methodType(type));
+        return (Supplier<Object>) site.getTarget().invokeExact();
+      } catch (Throwable ignore) {
+        // 不同的类加载器等情况，使用 MethodHandle 调用
+      }
+    }
+    try {
+      constructor.setAccessible(true);
+      MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor)
+          .asType(MethodType.methodType(Object.class));
+      return () -> {
+        try {
+          return (Object) handle.invokeExact();
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new IllegalStateException(e);
+        }
+      };
+    } catch (IllegalAccessException | SecurityException e) {
+      throw new IllegalStateException("无法访问结构体[" + type.getName() + "]的构造函数", e);
+    }
+  }
+
+}
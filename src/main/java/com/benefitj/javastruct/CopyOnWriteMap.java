@@ -0,0 +1,74 @@
+package com.benefitj.javastruct;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 写时复制的 Map：读取直接访问不可变的快照，不加锁；修改时复制新的快照并替换，
+ * 保留插入顺序。适用于初始化后很少修改、频繁读取的注册表
+ *
+ * @param <K> 键
+ * @param <V> 值
+ */
+class CopyOnWriteMap<K, V> extends AbstractMap<K, V> {
+
+  private volatile Map<K, V> snapshot = Collections.emptyMap();
+
+  @Override
+  public V get(Object key) {
+    return snapshot.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return snapshot.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return snapshot.size();
+  }
+
+  @Override
+  public synchronized V put(K key, V value) {
+    Map<K, V> copy = new LinkedHashMap<>(snapshot);
+    V old = copy.put(key, value);
+    snapshot = Collections.unmodifiableMap(copy);
+    return old;
+  }
+
+  @Override
+  public synchronized void putAll(Map<? extends K, ? extends V> m) {
+    Map<K, V> copy = new LinkedHashMap<>(snapshot);
+    copy.putAll(m);
+    snapshot = Collections.unmodifiableMap(copy);
+  }
+
+  @Override
+  public synchronized V remove(Object key) {
+    if (!snapshot.containsKey(key)) {
+      return null;
+    }
+    Map<K, V> copy = new LinkedHashMap<>(snapshot);
+    V old = copy.remove(key);
+    snapshot = Collections.unmodifiableMap(copy);
+    return old;
+  }
+
+  @Override
+  public synchronized void clear() {
+    snapshot = Collections.emptyMap();
+  }
+
+  /**
+   * 返回当前快照的条目，遍历期间的修改不影响遍历
+   */
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return snapshot.entrySet();
+  }
+
+}
@@ -3,9 +3,18 @@ package com.benefitj.javastruct;
 import com.benefitj.javastruct.convert.Converter;
 
 import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class DefaultStructResolver implements StructResolver {
+
+  /**
+   * 当前线程正在解析的结构体，用于发现循环嵌套
+   */
+  private final ThreadLocal<Set<Class<?>>> resolving = ThreadLocal.withInitial(HashSet::new);
+
   /**
    * 解析
    *
@@ -20,7 +29,14 @@ public class DefaultStructResolver implements StructResolver {
       throw new IllegalStateException("不支持的结构类[" + type + "]，请使用@ClassStruct注释！");
     }
 
-    Instantiator instantiator = manager.findInstantiator(jsc.instantiator());
+    Instantiator instantiator = null;
+    if (jsc.instantiator() == Instantiator.class) {
+      // 没有指定时，优先使用构造函数实例化器
+      instantiator = manager.findInstantiator(ConstructorInstantiator.class);
+    }
+    if (instantiator == null) {
+      instantiator = manager.findInstantiator(jsc.instantiator());
+    }
     if (instantiator == null) {
       throw new IllegalStateException(String.format(
           "无法发现结构对象的实例器\"%s.[%s]\"", type, jsc.instantiator()));
@@ -28,16 +44,37 @@ public class DefaultStructResolver implements StructResolver {
 
     StructClass structClass = new StructClass(type);
     structClass.setInstantiator(instantiator);
-    StructUtils.foreachField(type
-        , f -> f.isAnnotationPresent(JavaStructField.class)
-        , f -> structClass.getFields().add(createStructField(manager, f))
-        , f -> false
-        , false
-    );
+    Set<Class<?>> types = resolving.get();
+    if (!types.add(type)) {
+      throw new IllegalStateException("结构体[" + type.getName() + "]循环嵌套");
+    }
+    try {
+      StructUtils.foreachField(type
+          , f -> f.isAnnotationPresent(JavaStructField.class)
+          , f -> structClass.getFields().add(createStructField(manager, f))
+          , f -> false
+          , false
+      );
+    } finally {
+      types.remove(type);
+    }
+    linkLengthFields(structClass);
+    // 字段偏移
+    layoutFields(structClass.getFields());
+    // 执行计划
+    StructPlan plan = new StructPlan(structClass.getFields());
+    structClass.setPlan(plan);
+    if (structClass.getFields().stream().anyMatch(StructField::isVariable)) {
+      // 变长结构体：变长字段之后的偏移为最小偏移，编解码时按顺序计算
+      structClass.setFixedSize(false);
+      structClass.setSize(plan.getSize());
+      structClass.setCodec(new VariableStructCodec(plan));
+      return structClass;
+    }
     // 结构体大小
-    structClass.setSize(Math.max(jsc.value(), structClass.getFields().stream()
-        .mapToInt(StructField::size)
-        .sum()));
+    structClass.setSize(Math.max(jsc.value(), plan.getSize()));
+    // 编解码器
+    structClass.setCodec(new CompiledStructCodec(plan));
     return structClass;
   }
 
@@ -51,25 +88,245 @@ public class DefaultStructResolver implements StructResolver {
     PrimitiveType pt = PrimitiveType.valueOf(f.getType());
     JavaStructField jsf = f.getAnnotation(JavaStructField.class);
 
-    if (jsf.size() <= 0) {
+    if (pt == null) {
+      Class<?> nestedType = f.getType().isArray() ? f.getType().getComponentType() : f.getType();
+      if (nestedType.isAnnotationPresent(JavaStructClass.class)) {
+        return createNestedField(manager, f, jsf, nestedType);
+      }
+    }
+
+    boolean variable = jsf.lengthPrefix() > 0 || !jsf.lengthField().isEmpty();
+    if (jsf.size() <= 0 && !(variable && pt == PrimitiveType.STRING)) {
       throw new IllegalStateException(String.format(
           "请指定[%s.%s]的长度", f.getDeclaringClass().getName(), f.getName()));
     }
-    if (pt != null && pt.isArray() && jsf.arrayLength() < 1) {
+    if (!variable && pt != null && pt.isArray() && jsf.arrayLength() < 1) {
       throw new IllegalStateException(String.format(
           "请指定数组数组的长度: %s.%s", f.getDeclaringClass().getName(), f.getName()));
     }
+    if (variable) {
+      checkVariableField(f, jsf);
+    }
+    if (jsf.bits() > 0) {
+      checkBitField(f, jsf, variable);
+    }
 
     Converter<?> fc = findFieldConverter(manager, f, jsf, pt);
     StructField structField = new StructField(f);
     structField.setPrimitiveType(pt);
     structField.setAnnotation(jsf);
     structField.setConverter(fc);
+    structField.setAccessor(FieldAccessor.newAccessor(f));
     String charsetName = jsf.charset().trim();
     structField.setCharset(charsetName.isEmpty() ? manager.getCharset() : charsetName);
     return structField;
   }
 
+  /**
+   * 创建嵌套结构体的字段，嵌套的结构体在此时解析，编解码时不再查找
+   *
+   * @param f          字段
+   * @param jsf        结构注解
+   * @param nestedType 嵌套的结构体类型
+   * @return 字段结构
+   */
+  protected StructField createNestedField(JavaStructManager manager,
+                                          Field f,
+                                          JavaStructField jsf,
+                                          Class<?> nestedType) {
+    if (jsf.lengthPrefix() > 0 || !jsf.lengthField().isEmpty()) {
+      throw new IllegalStateException(String.format(
+          "嵌套的结构体不支持变长: %s.%s", f.getDeclaringClass().getName(), f.getName()));
+    }
+    if (f.getType().isArray() && jsf.arrayLength() < 1) {
+      throw new IllegalStateException(String.format(
+          "请指定数组数组的长度: %s.%s", f.getDeclaringClass().getName(), f.getName()));
+    }
+    StructClass nested = resolve(manager, nestedType);
+    if (!nested.isFixedSize()) {
+      throw new IllegalStateException(String.format(
+          "嵌套的结构体[%s]必须是固定长度: %s.%s", nestedType.getName(), f.getDeclaringClass().getName(), f.getName()));
+    }
+    if (jsf.size() > 0 && jsf.size() < nested.getSize()) {
+      throw new IllegalStateException(String.format(
+          "[%s.%s]的长度不能小于结构体的长度: %d < %d"
+          , f.getDeclaringClass().getName(), f.getName(), jsf.size(), nested.getSize()));
+    }
+    StructField structField = new StructField(f);
+    structField.setAnnotation(jsf);
+    structField.setStructClass(nested);
+    structField.setConverter(findFieldConverter(manager, f, jsf, null));
+    structField.setAccessor(FieldAccessor.newAccessor(f));
+    return structField;
+  }
+
+  /**
+   * 计算字段的偏移：相邻的位域在单元的长度和字节顺序相同、且位不重叠时共享一个单元，
+   * 同一个单元的位域偏移相同
+   *
+   * @param fields 字段
+   */
+  protected void layoutFields(List<StructField> fields) {
+    int offset = 0;
+    // 当前的位域单元
+    StructField unit = null;
+    // 单元中已使用的位
+    long used = 0;
+    // 单元中下一个可用的位
+    int next = 0;
+    for (StructField field : fields) {
+      if (!field.isBitField()) {
+        if (unit != null) {
+          offset += unit.size();
+          unit = null;
+        }
+        field.setOffset(offset);
+        offset += field.size();
+        continue;
+      }
+      int bits = field.getBits();
+      int unitBits = field.getFieldSize() << 3;
+      int start = field.getAnnotation().bitOffset();
+      if (unit != null && unit.getFieldSize() == field.getFieldSize() && unit.getByteOrder() == field.getByteOrder()) {
+        int s = start < 0 ? next : start;
+        if (s + bits > unitBits || (used & bitMask(s, bits)) != 0) {
+          // 放不下或重叠时使用新的单元
+          offset += unit.size();
+          unit = null;
+        }
+      } else if (unit != null) {
+        offset += unit.size();
+        unit = null;
+      }
+      if (unit == null) {
+        unit = field;
+        used = 0;
+        next = 0;
+      }
+      if (start < 0) {
+        start = next;
+      }
+      if (start + bits > unitBits) {
+        throw new IllegalStateException(String.format("位域超出单元的范围: %s.%s [%d + %d > %d]"
+            , field.getDeclaringClass().getName(), field.getField().getName(), start, bits, unitBits));
+      }
+      field.setBitOffset(start);
+      field.setOffset(offset);
+      used |= bitMask(start, bits);
+      next = start + bits;
+    }
+  }
+
+  private static long bitMask(int start, int bits) {
+    return (bits >= 64 ? -1L : (1L << bits) - 1) << start;
+  }
+
+  /**
+   * 检查位域：单元为1~8个字节的整数或布尔类型，使用默认的转换器
+   *
+   * @param f        字段
+   * @param jsf      结构注解
+   * @param variable 是否为变长字段
+   */
+  protected void checkBitField(Field f, JavaStructField jsf, boolean variable) {
+    String name = f.getDeclaringClass().getName() + "." + f.getName();
+    Class<?> type = f.getType();
+    if (!(type == boolean.class || type == byte.class || type == short.class || type == int.class || type == long.class)) {
+      throw new IllegalStateException(String.format("不支持的位域类型: %s [%s]", name, type.getName()));
+    }
+    if (variable || jsf.converter() != Converter.class) {
+      throw new IllegalStateException("位域不支持变长和自定义转换器: " + name);
+    }
+    if (jsf.size() > 8 || jsf.bits() > jsf.size() << 3 || jsf.bitOffset() < -1) {
+      throw new IllegalStateException(String.format(
+          "位域的长度错误: %s [size=%d, bits=%d, bitOffset=%d]", name, jsf.size(), jsf.bits(), jsf.bitOffset()));
+    }
+  }
+
+  /**
+   * 检查变长字段：基本数据类型的数组或字符串，使用默认的转换器
+   *
+   * @param f   字段
+   * @param jsf 结构注解
+   */
+  protected void checkVariableField(Field f, JavaStructField jsf) {
+    String name = f.getDeclaringClass().getName() + "." + f.getName();
+    if (jsf.lengthPrefix() > 0 && !jsf.lengthField().isEmpty()) {
+      throw new IllegalStateException("不能同时指定长度字段和长度前缀: " + name);
+    }
+    if (jsf.lengthPrefix() < 0 || jsf.lengthPrefix() > 4) {
+      throw new IllegalStateException("长度前缀为1~4个字节: " + name);
+    }
+    if (jsf.converter() != Converter.class) {
+      throw new IllegalStateException("变长字段不支持自定义转换器: " + name);
+    }
+    Class<?> type = f.getType();
+    if (type == String.class) {
+      return;
+    }
+    Class<?> component = type.getComponentType();
+    int width = jsf.size();
+    boolean supported;
+    if (component == byte.class) {
+      supported = width == 1;
+    } else if (component == short.class) {
+      supported = width <= 2;
+    } else if (component == int.class) {
+      supported = width <= 4;
+    } else if (component == long.class) {
+      supported = width <= 8;
+    } else if (component == float.class) {
+      supported = width == 4;
+    } else if (component == double.class) {
+      supported = width == 8;
+    } else {
+      throw new IllegalStateException(String.format("不支持的变长字段类型: %s [%s]", name, type.getName()));
+    }
+    if (!supported) {
+      throw new IllegalStateException(String.format("变长数组元素的长度错误: %s [%d]", name, width));
+    }
+  }
+
+  /**
+   * 关联变长字段和长度字段：长度字段必须是变长字段之前的整数字段，且只对应一个变长字段
+   *
+   * @param structClass 结构体
+   */
+  protected void linkLengthFields(StructClass structClass) {
+    List<StructField> fields = structClass.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      StructField field = fields.get(i);
+      String name = field.getAnnotation().lengthField();
+      if (name.isEmpty()) {
+        continue;
+      }
+      StructField lengthField = null;
+      for (int j = 0; j < i; j++) {
+        if (fields.get(j).getField().getName().equals(name)) {
+          lengthField = fields.get(j);
+        }
+      }
+      String fieldName = field.getDeclaringClass().getName() + "." + field.getField().getName();
+      if (lengthField == null) {
+        throw new IllegalStateException(String.format(
+            "变长字段[%s]的长度字段[%s]不存在或不在此字段之前", fieldName, name));
+      }
+      Class<?> lt = lengthField.getType();
+      if (lengthField.isVariable() || lengthField.isBitField() || !FieldCodecs.isInlinable(lengthField)
+          || !(lt == byte.class || lt == short.class || lt == int.class || lt == long.class)) {
+        throw new IllegalStateException(String.format(
+            "变长字段[%s]的长度字段[%s]必须是整数", fieldName, name));
+      }
+      for (int j = 0; j < i; j++) {
+        if (fields.get(j).getLengthField() == lengthField) {
+          throw new IllegalStateException(String.format(
+              "长度字段[%s]只能对应一个变长字段: %s", name, fieldName));
+        }
+      }
+      field.setLengthField(lengthField);
+    }
+  }
+
   /**
    * 查找字段解析器
    *
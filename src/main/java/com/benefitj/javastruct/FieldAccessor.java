@@ -0,0 +1,288 @@
+package com.benefitj.javastruct;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * 字段访问器
+ */
+public interface FieldAccessor {
+
+  /**
+   * 字段
+   */
+  Field getField();
+
+  /**
+   * 获取字段的值
+   *
+   * @param o 对象
+   * @return 返回字段的值
+   */
+  Object get(Object o);
+
+  /**
+   * 设置字段的值
+   *
+   * @param o     对象
+   * @param value 值
+   */
+  void set(Object o, Object value);
+
+  boolean getBoolean(Object o);
+
+  void setBoolean(Object o, boolean value);
+
+  byte getByte(Object o);
+
+  void setByte(Object o, byte value);
+
+  short getShort(Object o);
+
+  void setShort(Object o, short value);
+
+  int getInt(Object o);
+
+  void setInt(Object o, int value);
+
+  long getLong(Object o);
+
+  void setLong(Object o, long value);
+
+  float getFloat(Object o);
+
+  void setFloat(Object o, float value);
+
+  double getDouble(Object o);
+
+  void setDouble(Object o, double value);
+
+  /**
+   * 创建字段访问器
+   *
+   * @param field 字段
+   * @return 返回访问器
+   */
+  static FieldAccessor newAccessor(Field field) {
+    return new MethodHandleAccessor(field);
+  }
+
+  /**
+   * 基于 MethodHandle 的字段访问器，创建时检查一次访问权限，读写基本类型时不装箱
+   */
+  class MethodHandleAccessor implements FieldAccessor {
+
+    private final Field field;
+    /**
+     * (Object)Object
+     */
+    private final MethodHandle getter;
+    /**
+     * (Object, Object)void
+     */
+    private final MethodHandle setter;
+    /**
+     * (Object)字段类型
+     */
+    private final MethodHandle typedGetter;
+    /**
+     * (Object, 字段类型)void
+     */
+    private final MethodHandle typedSetter;
+
+    public MethodHandleAccessor(Field field) {
+      this.field = field;
+      StructUtils.setAccessible(field, true);
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Class<?> type = field.getType();
+        MethodHandle g = lookup.unreflectGetter(field);
+        MethodHandle s = lookup.unreflectSetter(field);
+        this.typedGetter = g.asType(MethodType.methodType(type, Object.class));
+        this.typedSetter = s.asType(MethodType.methodType(void.class, Object.class, type));
+        this.getter = g.asType(MethodType.methodType(Object.class, Object.class));
+        this.setter = s.asType(MethodType.methodType(void.class, Object.class, Object.class));
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(String.format(
+            "无法访问字段: %s.%s", field.getDeclaringClass().getName(), field.getName()), e);
+      }
+    }
+
+    @Override
+    public Field getField() {
+      return field;
+    }
+
+    /**
+     * (Object)字段类型
+     */
+    MethodHandle typedGetter() {
+      return typedGetter;
+    }
+
+    /**
+     * (Object, 字段类型)void
+     */
+    MethodHandle typedSetter() {
+      return typedSetter;
+    }
+
+    @Override
+    public Object get(Object o) {
+      try {
+        return getter.invokeExact(o);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public void set(Object o, Object value) {
+      try {
+        setter.invokeExact(o, value);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public boolean getBoolean(Object o) {
+      try {
+        return (boolean) typedGetter.invokeExact(o);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public void setBoolean(Object o, boolean value) {
+      try {
+        typedSetter.invokeExact(o, value);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public byte getByte(Object o) {
+      try {
+        return (byte) typedGetter.invokeExact(o);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public void setByte(Object o, byte value) {
+      try {
+        typedSetter.invokeExact(o, value);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public short getShort(Object o) {
+      try {
+        return (short) typedGetter.invokeExact(o);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public void setShort(Object o, short value) {
+      try {
+        typedSetter.invokeExact(o, value);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public int getInt(Object o) {
+      try {
+        return (int) typedGetter.invokeExact(o);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public void setInt(Object o, int value) {
+      try {
+        typedSetter.invokeExact(o, value);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public long getLong(Object o) {
+      try {
+        return (long) typedGetter.invokeExact(o);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public void setLong(Object o, long value) {
+      try {
+        typedSetter.invokeExact(o, value);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public float getFloat(Object o) {
+      try {
+        return (float) typedGetter.invokeExact(o);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public void setFloat(Object o, float value) {
+      try {
+        typedSetter.invokeExact(o, value);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public double getDouble(Object o) {
+      try {
+        return (double) typedGetter.invokeExact(o);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    @Override
+    public void setDouble(Object o, double value) {
+      try {
+        typedSetter.invokeExact(o, value);
+      } catch (Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+    private RuntimeException rethrow(Throwable e) {
+      if (e instanceof RuntimeException) {
+        return (RuntimeException) e;
+      }
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+      return new IllegalStateException(e);
+    }
+
+  }
+
+}
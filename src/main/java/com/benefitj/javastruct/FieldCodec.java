@@ -0,0 +1,86 @@
+package com.benefitj.javastruct;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 单个字段的编解码器
+ */
+public interface FieldCodec {
+
+  /**
+   * 编码字段
+   *
+   * @param o        对象
+   * @param dest     目标数组
+   * @param position 字段开始的位置
+   */
+  void encode(Object o, byte[] dest, int position);
+
+  /**
+   * 编码字段
+   *
+   * @param o        对象
+   * @param dest     目标缓冲，按绝对位置写入
+   * @param position 字段开始的位置
+   */
+  void encode(Object o, ByteBuffer dest, int position);
+
+  /**
+   * 解码字段
+   *
+   * @param o        对象
+   * @param data     数据
+   * @param position 字段开始的位置
+   */
+  void decode(Object o, byte[] data, int position);
+
+  /**
+   * 解码字段
+   *
+   * @param o        对象
+   * @param data     数据缓冲，按绝对位置读取
+   * @param position 字段开始的位置
+   */
+  void decode(Object o, ByteBuffer data, int position);
+
+  /**
+   * 解码字段到已有的对象，数组字段的长度一致时直接填充原数组
+   *
+   * @param o        对象
+   * @param data     数据
+   * @param position 字段开始的位置
+   */
+  default void decodeInto(Object o, byte[] data, int position) {
+    decode(o, data, position);
+  }
+
+  /**
+   * 解码字段到已有的对象，数组字段的长度一致时直接填充原数组
+   *
+   * @param o        对象
+   * @param data     数据缓冲，按绝对位置读取
+   * @param position 字段开始的位置
+   */
+  default void decodeInto(Object o, ByteBuffer data, int position) {
+    decode(o, data, position);
+  }
+
+  /**
+   * 读取字段的值
+   *
+   * @param data     数据
+   * @param position 字段开始的位置
+   * @return 返回字段的值
+   */
+  Object read(byte[] data, int position);
+
+  /**
+   * 读取字段的值
+   *
+   * @param data     数据缓冲，按绝对位置读取
+   * @param position 字段开始的位置
+   * @return 返回字段的值
+   */
+  Object read(ByteBuffer data, int position);
+
+}
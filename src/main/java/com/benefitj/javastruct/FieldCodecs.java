@@ -0,0 +1,1924 @@
+package com.benefitj.javastruct;
+
+import com.benefitj.javastruct.convert.DefaultPrimitiveConverter;
+import com.benefitj.javastruct.convert.StructConverter;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static com.benefitj.javastruct.IntegerBytes.getInt;
+import static com.benefitj.javastruct.IntegerBytes.getInteger;
+import static com.benefitj.javastruct.IntegerBytes.getLong;
+import static com.benefitj.javastruct.IntegerBytes.getShort;
+import static com.benefitj.javastruct.IntegerBytes.isBigEndian;
+import static com.benefitj.javastruct.IntegerBytes.mask;
+import static com.benefitj.javastruct.IntegerBytes.putInt;
+import static com.benefitj.javastruct.IntegerBytes.putInt24;
+import static com.benefitj.javastruct.IntegerBytes.putInteger;
+import static com.benefitj.javastruct.IntegerBytes.putLong;
+import static com.benefitj.javastruct.IntegerBytes.putLong40;
+import static com.benefitj.javastruct.IntegerBytes.putLong48;
+import static com.benefitj.javastruct.IntegerBytes.putLong56;
+import static com.benefitj.javastruct.IntegerBytes.putShort;
+
+/**
+ * 字段编解码器：根据字段的类型和字节顺序生成专用的编解码器，
+ * 不能内联的字段交给转换器处理
+ */
+public class FieldCodecs {
+
+  /**
+   * 创建字段的编解码器
+   *
+   * @param field 字段
+   * @return 返回编解码器
+   */
+  public static FieldCodec create(StructField field) {
+    if (field.isBitField()) {
+      return new BitUnitField(field);
+    }
+    if (field.isNested() && field.getConverter() instanceof StructConverter) {
+      return field.isArray() ? new StructArrayField(field) : new StructObjectField(field);
+    }
+    if (isInlinable(field)) {
+      Class<?> type = field.getType();
+      int width = field.getFieldSize();
+      boolean bigEndian = !field.isLittleEndian();
+      if (type == byte.class) {
+        return new ByteField(field);
+      } else if (type == short.class) {
+        return new ShortField(field, width, bigEndian);
+      } else if (type == int.class) {
+        return new IntField(field, width, bigEndian);
+      } else if (type == long.class) {
+        return new LongField(field, width, bigEndian);
+      } else if (type == float.class) {
+        return new FloatField(field, bigEndian);
+      } else if (type == double.class) {
+        return new DoubleField(field, bigEndian);
+      } else if (type == byte[].class) {
+        return new ByteArrayField(field);
+      } else if (type == short[].class) {
+        return new ShortArrayField(field, width, bigEndian);
+      } else if (type == int[].class) {
+        return new IntArrayField(field, width, bigEndian);
+      } else if (type == long[].class) {
+        return new LongArrayField(field, width, bigEndian);
+      } else if (type == float[].class) {
+        return new FloatArrayField(field, bigEndian);
+      } else if (type == double[].class) {
+        return new DoubleArrayField(field, bigEndian);
+      }
+    }
+    return new ConverterField(field);
+  }
+
+  /**
+   * 创建位域单元的编解码器，单元只读写一次
+   *
+   * @param members 同一个单元的位域
+   * @return 返回编解码器
+   */
+  public static FieldCodec createBitUnit(StructField... members) {
+    return new BitUnitField(members);
+  }
+
+  /**
+   * 位域单元的结束下标：从 start 开始偏移相同的连续位域属于同一个单元
+   *
+   * @param plan  执行计划
+   * @param start 单元的第一个位域
+   * @return 返回单元的结束下标(不包含)
+   */
+  public static int bitUnitEnd(StructPlan plan, int start) {
+    int end = start + 1;
+    while (end < plan.length() && plan.field(end).isBitField() && plan.offset(end) == plan.offset(start)) {
+      end++;
+    }
+    return end;
+  }
+
+  /**
+   * 位域单元的成员
+   *
+   * @param plan  执行计划
+   * @param start 开始的下标
+   * @param end   结束的下标(不包含)
+   * @return 返回成员
+   */
+  static StructField[] bitUnitMembers(StructPlan plan, int start, int end) {
+    StructField[] members = new StructField[end - start];
+    for (int i = start; i < end; i++) {
+      members[i - start] = plan.field(i);
+    }
+    return members;
+  }
+
+  /**
+   * 是否可以内联：使用默认转换器的基本数据类型，且长度(数组为元素的长度)不超过类型本身的长度
+   *
+   * @param field 字段
+   * @return 返回是否可以内联
+   */
+  public static boolean isInlinable(StructField field) {
+    if (field.getConverter() == null || field.getConverter().getClass() != DefaultPrimitiveConverter.class) {
+      return false;
+    }
+    Class<?> type = field.getType();
+    int width = field.getFieldSize();
+    if (type == byte.class || type == byte[].class) {
+      return width == 1;
+    } else if (type == short.class || type == short[].class) {
+      return width <= 2;
+    } else if (type == int.class || type == int[].class) {
+      return width <= 4;
+    } else if (type == long.class || type == long[].class) {
+      return width <= 8;
+    } else if (type == float.class || type == float[].class) {
+      return width == 4;
+    } else if (type == double.class || type == double[].class) {
+      return width == 8;
+    }
+    return false;
+  }
+
+  /**
+   * 按字段字节顺序包装数组的一段，用于元素长度等于类型长度的数组批量读写
+   */
+  static ByteBuffer view(byte[] d, int p, int length, boolean bigEndian) {
+    return ByteBuffer.wrap(d, p, length).order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * 批量读取短整数数组，元素长度为1~2个字节；元素长度等于类型长度时使用视图缓冲批量读取
+   */
+  static void getShorts(byte[] d, int p, int width, boolean bigEndian, boolean unsigned, short[] dst, int count) {
+    int m = (int) mask(width, unsigned);
+    switch (width) {
+      case 2:
+        view(d, p, count * 2, bigEndian).asShortBuffer().get(dst, 0, count);
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          dst[i] = (short) (d[p] & m);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("短整数的长度必须为1~2个字节: " + width);
+    }
+  }
+
+  /**
+   * 批量读取整数数组，元素长度为1~4个字节，每种长度使用专门的循环；元素长度等于类型长度时使用视图缓冲批量读取
+   */
+  static void getInts(byte[] d, int p, int width, boolean bigEndian, boolean unsigned, int[] dst, int count) {
+    int m = (int) mask(width, unsigned);
+    switch (width) {
+      case 4:
+        view(d, p, count * 4, bigEndian).asIntBuffer().get(dst, 0, count);
+        break;
+      case 3:
+        getInt24s(view(d, p, count * 3, bigEndian), p, unsigned, dst, count);
+        break;
+      case 2:
+        for (int i = 0; i < count; i++, p += 2) {
+          dst[i] = getShort(d, p, bigEndian) & m;
+        }
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          dst[i] = d[p] & m;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("整数的长度必须为1~4个字节: " + width);
+    }
+  }
+
+  /**
+   * 批量读取长整数数组，元素长度为1~8个字节，每种长度使用专门的循环；元素长度等于类型长度时使用视图缓冲批量读取
+   */
+  static void getLongs(byte[] d, int p, int width, boolean bigEndian, boolean unsigned, long[] dst, int count) {
+    long m = mask(width, unsigned);
+    switch (width) {
+      case 8:
+        view(d, p, count * 8, bigEndian).asLongBuffer().get(dst, 0, count);
+        break;
+      case 7:
+      case 6:
+      case 5:
+        getLongs(view(d, p, count * width, bigEndian), p, width, unsigned, dst, count);
+        break;
+      case 4:
+        for (int i = 0; i < count; i++, p += 4) {
+          dst[i] = getInt(d, p, bigEndian) & m;
+        }
+        break;
+      case 3:
+        getInt24s(view(d, p, count * 3, bigEndian), p, unsigned, dst, count);
+        break;
+      case 2:
+        for (int i = 0; i < count; i++, p += 2) {
+          dst[i] = getShort(d, p, bigEndian) & m;
+        }
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          dst[i] = d[p] & m;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("长整数的长度必须为1~8个字节: " + width);
+    }
+  }
+
+  /**
+   * 批量写入短整数数组的低位字节，元素长度为1~2个字节；元素长度等于类型长度时使用视图缓冲批量写入
+   */
+  static void putShorts(byte[] d, int p, int width, boolean bigEndian, short[] src, int count) {
+    switch (width) {
+      case 2:
+        view(d, p, count * 2, bigEndian).asShortBuffer().put(src, 0, count);
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          d[p] = (byte) src[i];
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("短整数的长度必须为1~2个字节: " + width);
+    }
+  }
+
+  /**
+   * 批量写入整数数组的低位字节，元素长度为1~4个字节，每种长度使用专门的循环；元素长度等于类型长度时使用视图缓冲批量写入
+   */
+  static void putInts(byte[] d, int p, int width, boolean bigEndian, int[] src, int count) {
+    switch (width) {
+      case 4:
+        view(d, p, count * 4, bigEndian).asIntBuffer().put(src, 0, count);
+        break;
+      case 3:
+        for (int i = 0; i < count; i++, p += 3) {
+          putInt24(d, p, src[i], bigEndian);
+        }
+        break;
+      case 2:
+        for (int i = 0; i < count; i++, p += 2) {
+          putShort(d, p, (short) src[i], bigEndian);
+        }
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          d[p] = (byte) src[i];
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("整数的长度必须为1~4个字节: " + width);
+    }
+  }
+
+  /**
+   * 批量写入长整数数组的低位字节，元素长度为1~8个字节，每种长度使用专门的循环；元素长度等于类型长度时使用视图缓冲批量写入
+   */
+  static void putLongs(byte[] d, int p, int width, boolean bigEndian, long[] src, int count) {
+    switch (width) {
+      case 8:
+        view(d, p, count * 8, bigEndian).asLongBuffer().put(src, 0, count);
+        break;
+      case 7:
+        for (int i = 0; i < count; i++, p += 7) {
+          putLong56(d, p, src[i], bigEndian);
+        }
+        break;
+      case 6:
+        for (int i = 0; i < count; i++, p += 6) {
+          putLong48(d, p, src[i], bigEndian);
+        }
+        break;
+      case 5:
+        for (int i = 0; i < count; i++, p += 5) {
+          putLong40(d, p, src[i], bigEndian);
+        }
+        break;
+      case 4:
+        for (int i = 0; i < count; i++, p += 4) {
+          putInt(d, p, (int) src[i], bigEndian);
+        }
+        break;
+      case 3:
+        for (int i = 0; i < count; i++, p += 3) {
+          putInt24(d, p, (int) src[i], bigEndian);
+        }
+        break;
+      case 2:
+        for (int i = 0; i < count; i++, p += 2) {
+          putShort(d, p, (short) src[i], bigEndian);
+        }
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          d[p] = (byte) src[i];
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("长整数的长度必须为1~8个字节: " + width);
+    }
+  }
+
+  static ByteBuffer view(ByteBuffer b, int p, int length, boolean bigEndian) {
+    ByteBuffer dup = b.duplicate();
+    dup.clear();
+    dup.limit(p + length).position(p);
+    return dup.order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+  }
+
+  static void getShorts(ByteBuffer b, int p, int width, boolean bigEndian, boolean unsigned, short[] dst, int count) {
+    int m = (int) mask(width, unsigned);
+    switch (width) {
+      case 2:
+        view(b, p, count * 2, bigEndian).asShortBuffer().get(dst, 0, count);
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          dst[i] = (short) (b.get(p) & m);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("短整数的长度必须为1~2个字节: " + width);
+    }
+  }
+
+  static void getInts(ByteBuffer b, int p, int width, boolean bigEndian, boolean unsigned, int[] dst, int count) {
+    int m = (int) mask(width, unsigned);
+    switch (width) {
+      case 4:
+        view(b, p, count * 4, bigEndian).asIntBuffer().get(dst, 0, count);
+        break;
+      case 3:
+        getInt24s(view(b, p, count * 3, bigEndian), p, unsigned, dst, count);
+        break;
+      case 2:
+        for (int i = 0; i < count; i++, p += 2) {
+          dst[i] = getShort(b, p, bigEndian) & m;
+        }
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          dst[i] = b.get(p) & m;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("整数的长度必须为1~4个字节: " + width);
+    }
+  }
+
+  static void getLongs(ByteBuffer b, int p, int width, boolean bigEndian, boolean unsigned, long[] dst, int count) {
+    long m = mask(width, unsigned);
+    switch (width) {
+      case 8:
+        view(b, p, count * 8, bigEndian).asLongBuffer().get(dst, 0, count);
+        break;
+      case 7:
+      case 6:
+      case 5:
+        getLongs(view(b, p, count * width, bigEndian), p, width, unsigned, dst, count);
+        break;
+      case 4:
+        for (int i = 0; i < count; i++, p += 4) {
+          dst[i] = getInt(b, p, bigEndian) & m;
+        }
+        break;
+      case 3:
+        getInt24s(view(b, p, count * 3, bigEndian), p, unsigned, dst, count);
+        break;
+      case 2:
+        for (int i = 0; i < count; i++, p += 2) {
+          dst[i] = getShort(b, p, bigEndian) & m;
+        }
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          dst[i] = b.get(p) & m;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("长整数的长度必须为1~8个字节: " + width);
+    }
+  }
+
+  /**
+   * 批量读取3个字节的整数，字节顺序由视图缓冲决定：除最后一个元素外每次读取4个字节，
+   * 移除多读的一个字节；每种字节顺序和符号使用单独的循环
+   */
+  static void getInt24s(ByteBuffer v, int p, boolean unsigned, int[] dst, int count) {
+    if (count <= 0) {
+      return;
+    }
+    int last = count - 1;
+    boolean bigEndian = isBigEndian(v);
+    if (bigEndian) {
+      if (unsigned) {
+        uint24BigEndian(v, p, dst, last);
+      } else {
+        int24BigEndian(v, p, dst, last);
+      }
+    } else {
+      if (unsigned) {
+        uint24LittleEndian(v, p, dst, last);
+      } else {
+        int24LittleEndian(v, p, dst, last);
+      }
+    }
+    dst[last] = (int) getInteger(v, p + last * 3, 3, bigEndian, unsigned);
+  }
+
+  /**
+   * 批量读取3个字节的整数到长整数数组，同 {@link #getInt24s(ByteBuffer, int, boolean, int[], int)}
+   */
+  static void getInt24s(ByteBuffer v, int p, boolean unsigned, long[] dst, int count) {
+    if (count <= 0) {
+      return;
+    }
+    int last = count - 1;
+    boolean bigEndian = isBigEndian(v);
+    if (bigEndian) {
+      if (unsigned) {
+        uint24BigEndian(v, p, dst, last);
+      } else {
+        int24BigEndian(v, p, dst, last);
+      }
+    } else {
+      if (unsigned) {
+        uint24LittleEndian(v, p, dst, last);
+      } else {
+        int24LittleEndian(v, p, dst, last);
+      }
+    }
+    dst[last] = getInteger(v, p + last * 3, 3, bigEndian, unsigned);
+  }
+
+  /**
+   * 批量读取5~7个字节的长整数，字节顺序由视图缓冲决定：除最后一个元素外每次读取8个字节，
+   * 移除多读的字节；每种字节顺序和符号使用单独的循环
+   */
+  static void getLongs(ByteBuffer v, int p, int width, boolean unsigned, long[] dst, int count) {
+    if (count <= 0) {
+      return;
+    }
+    int last = count - 1;
+    boolean bigEndian = isBigEndian(v);
+    if (bigEndian) {
+      if (unsigned) {
+        ulongBigEndian(v, p, width, dst, last);
+      } else {
+        longBigEndian(v, p, width, dst, last);
+      }
+    } else {
+      if (unsigned) {
+        ulongLittleEndian(v, p, width, dst, last);
+      } else {
+        longLittleEndian(v, p, width, dst, last);
+      }
+    }
+    dst[last] = getInteger(v, p + last * width, width, bigEndian, unsigned);
+  }
+
+  private static void int24BigEndian(ByteBuffer v, int p, int[] dst, int count) {
+    for (int i = 0; i < count; i++, p += 3) {
+      dst[i] = v.getInt(p) >> 8;
+    }
+  }
+
+  private static void uint24BigEndian(ByteBuffer v, int p, int[] dst, int count) {
+    for (int i = 0; i < count; i++, p += 3) {
+      dst[i] = v.getInt(p) >>> 8;
+    }
+  }
+
+  private static void int24LittleEndian(ByteBuffer v, int p, int[] dst, int count) {
+    for (int i = 0; i < count; i++, p += 3) {
+      dst[i] = (v.getInt(p) << 8) >> 8;
+    }
+  }
+
+  private static void uint24LittleEndian(ByteBuffer v, int p, int[] dst, int count) {
+    for (int i = 0; i < count; i++, p += 3) {
+      dst[i] = v.getInt(p) & 0xFFFFFF;
+    }
+  }
+
+  private static void int24BigEndian(ByteBuffer v, int p, long[] dst, int count) {
+    for (int i = 0; i < count; i++, p += 3) {
+      dst[i] = v.getInt(p) >> 8;
+    }
+  }
+
+  private static void uint24BigEndian(ByteBuffer v, int p, long[] dst, int count) {
+    for (int i = 0; i < count; i++, p += 3) {
+      dst[i] = v.getInt(p) >>> 8;
+    }
+  }
+
+  private static void int24LittleEndian(ByteBuffer v, int p, long[] dst, int count) {
+    for (int i = 0; i < count; i++, p += 3) {
+      dst[i] = (v.getInt(p) << 8) >> 8;
+    }
+  }
+
+  private static void uint24LittleEndian(ByteBuffer v, int p, long[] dst, int count) {
+    for (int i = 0; i < count; i++, p += 3) {
+      dst[i] = v.getInt(p) & 0xFFFFFF;
+    }
+  }
+
+  private static void longBigEndian(ByteBuffer v, int p, int width, long[] dst, int count) {
+    int shift = 64 - (width << 3);
+    for (int i = 0; i < count; i++, p += width) {
+      dst[i] = v.getLong(p) >> shift;
+    }
+  }
+
+  private static void ulongBigEndian(ByteBuffer v, int p, int width, long[] dst, int count) {
+    int shift = 64 - (width << 3);
+    for (int i = 0; i < count; i++, p += width) {
+      dst[i] = v.getLong(p) >>> shift;
+    }
+  }
+
+  private static void longLittleEndian(ByteBuffer v, int p, int width, long[] dst, int count) {
+    int shift = 64 - (width << 3);
+    for (int i = 0; i < count; i++, p += width) {
+      dst[i] = (v.getLong(p) << shift) >> shift;
+    }
+  }
+
+  private static void ulongLittleEndian(ByteBuffer v, int p, int width, long[] dst, int count) {
+    long m = mask(width, true);
+    for (int i = 0; i < count; i++, p += width) {
+      dst[i] = v.getLong(p) & m;
+    }
+  }
+
+  static void putShorts(ByteBuffer b, int p, int width, boolean bigEndian, short[] src, int count) {
+    switch (width) {
+      case 2:
+        view(b, p, count * 2, bigEndian).asShortBuffer().put(src, 0, count);
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          b.put(p, (byte) src[i]);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("短整数的长度必须为1~2个字节: " + width);
+    }
+  }
+
+  static void putInts(ByteBuffer b, int p, int width, boolean bigEndian, int[] src, int count) {
+    switch (width) {
+      case 4:
+        view(b, p, count * 4, bigEndian).asIntBuffer().put(src, 0, count);
+        break;
+      case 3:
+        for (int i = 0; i < count; i++, p += 3) {
+          putInt24(b, p, src[i], bigEndian);
+        }
+        break;
+      case 2:
+        for (int i = 0; i < count; i++, p += 2) {
+          putShort(b, p, (short) src[i], bigEndian);
+        }
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          b.put(p, (byte) src[i]);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("整数的长度必须为1~4个字节: " + width);
+    }
+  }
+
+  static void putLongs(ByteBuffer b, int p, int width, boolean bigEndian, long[] src, int count) {
+    switch (width) {
+      case 8:
+        view(b, p, count * 8, bigEndian).asLongBuffer().put(src, 0, count);
+        break;
+      case 7:
+        for (int i = 0; i < count; i++, p += 7) {
+          putLong56(b, p, src[i], bigEndian);
+        }
+        break;
+      case 6:
+        for (int i = 0; i < count; i++, p += 6) {
+          putLong48(b, p, src[i], bigEndian);
+        }
+        break;
+      case 5:
+        for (int i = 0; i < count; i++, p += 5) {
+          putLong40(b, p, src[i], bigEndian);
+        }
+        break;
+      case 4:
+        for (int i = 0; i < count; i++, p += 4) {
+          putInt(b, p, (int) src[i], bigEndian);
+        }
+        break;
+      case 3:
+        for (int i = 0; i < count; i++, p += 3) {
+          putInt24(b, p, (int) src[i], bigEndian);
+        }
+        break;
+      case 2:
+        for (int i = 0; i < count; i++, p += 2) {
+          putShort(b, p, (short) src[i], bigEndian);
+        }
+        break;
+      case 1:
+        for (int i = 0; i < count; i++, p++) {
+          b.put(p, (byte) src[i]);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("长整数的长度必须为1~8个字节: " + width);
+    }
+  }
+
+  static void fillZero(ByteBuffer b, int from, int to) {
+    for (int i = from; i < to; i++) {
+      b.put(i, (byte) 0);
+    }
+  }
+
+  /**
+   * 字段编解码器的基类
+   */
+  static abstract class AbstractFieldCodec implements FieldCodec {
+
+    protected final StructField field;
+    protected final FieldAccessor f;
+
+    AbstractFieldCodec(StructField field) {
+      this.field = field;
+      this.f = field.getAccessor();
+    }
+
+    protected int checkLength(int length) {
+      if (length != field.getArrayLength()) {
+        throw new IllegalStateException(String.format(
+            "数组长度不匹配，期待长度%d，实际长度%d", field.getArrayLength(), length));
+      }
+      return length;
+    }
+
+    protected void fillZero(byte[] dest, int position) {
+      Arrays.fill(dest, position, position + field.size(), (byte) 0);
+    }
+
+    protected void fillZero(ByteBuffer dest, int position) {
+      FieldCodecs.fillZero(dest, position, position + field.size());
+    }
+  }
+
+  static final class ByteField extends AbstractFieldCodec {
+
+    ByteField(StructField field) {
+      super(field);
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      dest[position] = f.getByte(o);
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      dest.put(position, f.getByte(o));
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      f.setByte(o, data[position]);
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return data[position];
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      f.setByte(o, data.get(position));
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return data.get(position);
+    }
+  }
+
+  static final class ShortField extends AbstractFieldCodec {
+
+    private final int width;
+    private final boolean bigEndian;
+    private final boolean unsigned;
+
+    ShortField(StructField field, int width, boolean bigEndian) {
+      super(field);
+      this.width = width;
+      this.bigEndian = bigEndian;
+      this.unsigned = field.isUnsigned();
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      short v = f.getShort(o);
+      if (width == 2) {
+        putShort(dest, position, v, bigEndian);
+      } else {
+        putInteger(dest, position, width, v, bigEndian);
+      }
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      short v = f.getShort(o);
+      if (width == 2) {
+        putShort(dest, position, v, bigEndian);
+      } else {
+        putInteger(dest, position, width, v, bigEndian);
+      }
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      f.setShort(o, width == 2
+          ? getShort(data, position, bigEndian)
+          : (short) getInteger(data, position, width, bigEndian, unsigned));
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return width == 2
+          ? getShort(data, position, bigEndian)
+          : (short) getInteger(data, position, width, bigEndian, unsigned);
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      f.setShort(o, width == 2
+          ? getShort(data, position, bigEndian)
+          : (short) getInteger(data, position, width, bigEndian, unsigned));
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return width == 2
+          ? getShort(data, position, bigEndian)
+          : (short) getInteger(data, position, width, bigEndian, unsigned);
+    }
+  }
+
+  static final class IntField extends AbstractFieldCodec {
+
+    private final int width;
+    private final boolean bigEndian;
+    private final boolean unsigned;
+
+    IntField(StructField field, int width, boolean bigEndian) {
+      super(field);
+      this.width = width;
+      this.bigEndian = bigEndian;
+      this.unsigned = field.isUnsigned();
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      int v = f.getInt(o);
+      if (width == 4) {
+        putInt(dest, position, v, bigEndian);
+      } else {
+        putInteger(dest, position, width, v, bigEndian);
+      }
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      int v = f.getInt(o);
+      if (width == 4) {
+        putInt(dest, position, v, bigEndian);
+      } else {
+        putInteger(dest, position, width, v, bigEndian);
+      }
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      f.setInt(o, width == 4
+          ? getInt(data, position, bigEndian)
+          : (int) getInteger(data, position, width, bigEndian, unsigned));
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return width == 4
+          ? getInt(data, position, bigEndian)
+          : (int) getInteger(data, position, width, bigEndian, unsigned);
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      f.setInt(o, width == 4
+          ? getInt(data, position, bigEndian)
+          : (int) getInteger(data, position, width, bigEndian, unsigned));
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return width == 4
+          ? getInt(data, position, bigEndian)
+          : (int) getInteger(data, position, width, bigEndian, unsigned);
+    }
+  }
+
+  static final class LongField extends AbstractFieldCodec {
+
+    private final int width;
+    private final boolean bigEndian;
+    private final boolean unsigned;
+
+    LongField(StructField field, int width, boolean bigEndian) {
+      super(field);
+      this.width = width;
+      this.bigEndian = bigEndian;
+      this.unsigned = field.isUnsigned();
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      long v = f.getLong(o);
+      if (width == 8) {
+        putLong(dest, position, v, bigEndian);
+      } else {
+        putInteger(dest, position, width, v, bigEndian);
+      }
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      long v = f.getLong(o);
+      if (width == 8) {
+        putLong(dest, position, v, bigEndian);
+      } else {
+        putInteger(dest, position, width, v, bigEndian);
+      }
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      f.setLong(o, width == 8
+          ? getLong(data, position, bigEndian)
+          : getInteger(data, position, width, bigEndian, unsigned));
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return width == 8
+          ? getLong(data, position, bigEndian)
+          : getInteger(data, position, width, bigEndian, unsigned);
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      f.setLong(o, width == 8
+          ? getLong(data, position, bigEndian)
+          : getInteger(data, position, width, bigEndian, unsigned));
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return width == 8
+          ? getLong(data, position, bigEndian)
+          : getInteger(data, position, width, bigEndian, unsigned);
+    }
+  }
+
+  static final class FloatField extends AbstractFieldCodec {
+
+    private final boolean bigEndian;
+
+    FloatField(StructField field, boolean bigEndian) {
+      super(field);
+      this.bigEndian = bigEndian;
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      putInt(dest, position, Float.floatToIntBits(f.getFloat(o)), bigEndian);
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      putInt(dest, position, Float.floatToIntBits(f.getFloat(o)), bigEndian);
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      f.setFloat(o, Float.intBitsToFloat(getInt(data, position, bigEndian)));
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return Float.intBitsToFloat(getInt(data, position, bigEndian));
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      f.setFloat(o, Float.intBitsToFloat(getInt(data, position, bigEndian)));
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return Float.intBitsToFloat(getInt(data, position, bigEndian));
+    }
+  }
+
+  static final class DoubleField extends AbstractFieldCodec {
+
+    private final boolean bigEndian;
+
+    DoubleField(StructField field, boolean bigEndian) {
+      super(field);
+      this.bigEndian = bigEndian;
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      putLong(dest, position, Double.doubleToLongBits(f.getDouble(o)), bigEndian);
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      putLong(dest, position, Double.doubleToLongBits(f.getDouble(o)), bigEndian);
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      f.setDouble(o, Double.longBitsToDouble(getLong(data, position, bigEndian)));
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return Double.longBitsToDouble(getLong(data, position, bigEndian));
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      f.setDouble(o, Double.longBitsToDouble(getLong(data, position, bigEndian)));
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return Double.longBitsToDouble(getLong(data, position, bigEndian));
+    }
+  }
+
+  static final class ByteArrayField extends AbstractFieldCodec {
+
+    ByteArrayField(StructField field) {
+      super(field);
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      byte[] array = (byte[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      System.arraycopy(array, 0, dest, position, checkLength(array.length));
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      byte[] array = (byte[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      ByteBuffer buf = dest.duplicate();
+      buf.position(position);
+      buf.put(array, 0, checkLength(array.length));
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      byte[] array = new byte[field.getArrayLength()];
+      System.arraycopy(data, position, array, 0, array.length);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, byte[] data, int position) {
+      byte[] array = (byte[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new byte[field.getArrayLength()];
+        f.set(o, array);
+      }
+      System.arraycopy(data, position, array, 0, array.length);
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      byte[] array = new byte[field.getArrayLength()];
+      System.arraycopy(data, position, array, 0, array.length);
+      return array;
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      byte[] array = new byte[field.getArrayLength()];
+      ByteBuffer buf = data.duplicate();
+      buf.position(position);
+      buf.get(array);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, ByteBuffer data, int position) {
+      byte[] array = (byte[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new byte[field.getArrayLength()];
+        f.set(o, array);
+      }
+      ByteBuffer buf = data.duplicate();
+      buf.position(position);
+      buf.get(array);
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      byte[] array = new byte[field.getArrayLength()];
+      ByteBuffer buf = data.duplicate();
+      buf.position(position);
+      buf.get(array);
+      return array;
+    }
+  }
+
+  static final class ShortArrayField extends AbstractFieldCodec {
+
+    private final int width;
+    private final boolean bigEndian;
+    private final boolean unsigned;
+
+    ShortArrayField(StructField field, int width, boolean bigEndian) {
+      super(field);
+      this.width = width;
+      this.bigEndian = bigEndian;
+      this.unsigned = field.isUnsigned();
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      short[] array = (short[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      putShorts(dest, position, width, bigEndian, array, checkLength(array.length));
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      short[] array = (short[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      putShorts(dest, position, width, bigEndian, array, checkLength(array.length));
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      short[] array = new short[field.getArrayLength()];
+      getShorts(data, position, width, bigEndian, unsigned, array, array.length);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, byte[] data, int position) {
+      short[] array = (short[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new short[field.getArrayLength()];
+        f.set(o, array);
+      }
+      getShorts(data, position, width, bigEndian, unsigned, array, array.length);
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      short[] array = new short[field.getArrayLength()];
+      getShorts(data, position, width, bigEndian, unsigned, array, array.length);
+      return array;
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      short[] array = new short[field.getArrayLength()];
+      getShorts(data, position, width, bigEndian, unsigned, array, array.length);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, ByteBuffer data, int position) {
+      short[] array = (short[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new short[field.getArrayLength()];
+        f.set(o, array);
+      }
+      getShorts(data, position, width, bigEndian, unsigned, array, array.length);
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      short[] array = new short[field.getArrayLength()];
+      getShorts(data, position, width, bigEndian, unsigned, array, array.length);
+      return array;
+    }
+  }
+
+  static final class IntArrayField extends AbstractFieldCodec {
+
+    private final int width;
+    private final boolean bigEndian;
+    private final boolean unsigned;
+
+    IntArrayField(StructField field, int width, boolean bigEndian) {
+      super(field);
+      this.width = width;
+      this.bigEndian = bigEndian;
+      this.unsigned = field.isUnsigned();
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      int[] array = (int[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      putInts(dest, position, width, bigEndian, array, checkLength(array.length));
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      int[] array = (int[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      putInts(dest, position, width, bigEndian, array, checkLength(array.length));
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      int[] array = new int[field.getArrayLength()];
+      getInts(data, position, width, bigEndian, unsigned, array, array.length);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, byte[] data, int position) {
+      int[] array = (int[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new int[field.getArrayLength()];
+        f.set(o, array);
+      }
+      getInts(data, position, width, bigEndian, unsigned, array, array.length);
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      int[] array = new int[field.getArrayLength()];
+      getInts(data, position, width, bigEndian, unsigned, array, array.length);
+      return array;
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      int[] array = new int[field.getArrayLength()];
+      getInts(data, position, width, bigEndian, unsigned, array, array.length);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, ByteBuffer data, int position) {
+      int[] array = (int[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new int[field.getArrayLength()];
+        f.set(o, array);
+      }
+      getInts(data, position, width, bigEndian, unsigned, array, array.length);
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      int[] array = new int[field.getArrayLength()];
+      getInts(data, position, width, bigEndian, unsigned, array, array.length);
+      return array;
+    }
+  }
+
+  static final class LongArrayField extends AbstractFieldCodec {
+
+    private final int width;
+    private final boolean bigEndian;
+    private final boolean unsigned;
+
+    LongArrayField(StructField field, int width, boolean bigEndian) {
+      super(field);
+      this.width = width;
+      this.bigEndian = bigEndian;
+      this.unsigned = field.isUnsigned();
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      long[] array = (long[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      putLongs(dest, position, width, bigEndian, array, checkLength(array.length));
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      long[] array = (long[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      putLongs(dest, position, width, bigEndian, array, checkLength(array.length));
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      long[] array = new long[field.getArrayLength()];
+      getLongs(data, position, width, bigEndian, unsigned, array, array.length);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, byte[] data, int position) {
+      long[] array = (long[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new long[field.getArrayLength()];
+        f.set(o, array);
+      }
+      getLongs(data, position, width, bigEndian, unsigned, array, array.length);
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      long[] array = new long[field.getArrayLength()];
+      getLongs(data, position, width, bigEndian, unsigned, array, array.length);
+      return array;
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      long[] array = new long[field.getArrayLength()];
+      getLongs(data, position, width, bigEndian, unsigned, array, array.length);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, ByteBuffer data, int position) {
+      long[] array = (long[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new long[field.getArrayLength()];
+        f.set(o, array);
+      }
+      getLongs(data, position, width, bigEndian, unsigned, array, array.length);
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      long[] array = new long[field.getArrayLength()];
+      getLongs(data, position, width, bigEndian, unsigned, array, array.length);
+      return array;
+    }
+  }
+
+  static final class FloatArrayField extends AbstractFieldCodec {
+
+    private final boolean bigEndian;
+
+    FloatArrayField(StructField field, boolean bigEndian) {
+      super(field);
+      this.bigEndian = bigEndian;
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      float[] array = (float[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      int len = checkLength(array.length);
+      view(dest, position, len * 4, bigEndian).asFloatBuffer().put(array, 0, len);
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      float[] array = (float[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      int len = checkLength(array.length);
+      view(dest, position, len * 4, bigEndian).asFloatBuffer().put(array, 0, len);
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      float[] array = new float[field.getArrayLength()];
+      view(data, position, array.length * 4, bigEndian).asFloatBuffer().get(array);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, byte[] data, int position) {
+      float[] array = (float[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new float[field.getArrayLength()];
+        f.set(o, array);
+      }
+      view(data, position, array.length * 4, bigEndian).asFloatBuffer().get(array);
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      float[] array = new float[field.getArrayLength()];
+      view(data, position, array.length * 4, bigEndian).asFloatBuffer().get(array);
+      return array;
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      float[] array = new float[field.getArrayLength()];
+      view(data, position, array.length * 4, bigEndian).asFloatBuffer().get(array);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, ByteBuffer data, int position) {
+      float[] array = (float[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new float[field.getArrayLength()];
+        f.set(o, array);
+      }
+      view(data, position, array.length * 4, bigEndian).asFloatBuffer().get(array);
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      float[] array = new float[field.getArrayLength()];
+      view(data, position, array.length * 4, bigEndian).asFloatBuffer().get(array);
+      return array;
+    }
+  }
+
+  static final class DoubleArrayField extends AbstractFieldCodec {
+
+    private final boolean bigEndian;
+
+    DoubleArrayField(StructField field, boolean bigEndian) {
+      super(field);
+      this.bigEndian = bigEndian;
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      double[] array = (double[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      int len = checkLength(array.length);
+      view(dest, position, len * 8, bigEndian).asDoubleBuffer().put(array, 0, len);
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      double[] array = (double[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      int len = checkLength(array.length);
+      view(dest, position, len * 8, bigEndian).asDoubleBuffer().put(array, 0, len);
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      double[] array = new double[field.getArrayLength()];
+      view(data, position, array.length * 8, bigEndian).asDoubleBuffer().get(array);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, byte[] data, int position) {
+      double[] array = (double[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new double[field.getArrayLength()];
+        f.set(o, array);
+      }
+      view(data, position, array.length * 8, bigEndian).asDoubleBuffer().get(array);
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      double[] array = new double[field.getArrayLength()];
+      view(data, position, array.length * 8, bigEndian).asDoubleBuffer().get(array);
+      return array;
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      double[] array = new double[field.getArrayLength()];
+      view(data, position, array.length * 8, bigEndian).asDoubleBuffer().get(array);
+      f.set(o, array);
+    }
+
+    @Override
+    public void decodeInto(Object o, ByteBuffer data, int position) {
+      double[] array = (double[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        array = new double[field.getArrayLength()];
+        f.set(o, array);
+      }
+      view(data, position, array.length * 8, bigEndian).asDoubleBuffer().get(array);
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      double[] array = new double[field.getArrayLength()];
+      view(data, position, array.length * 8, bigEndian).asDoubleBuffer().get(array);
+      return array;
+    }
+  }
+
+  /**
+   * 位域单元：一次读取整个单元，成员按位移和掩码取值；编码时合并成员后一次写入，
+   * 单元中未使用的位补0
+   */
+  static final class BitUnitField implements FieldCodec {
+
+    private static final int BOOLEAN = 0, BYTE = 1, SHORT = 2, INT = 3, LONG = 4;
+
+    private final FieldAccessor[] accessors;
+    /**
+     * 成员的类型
+     */
+    private final int[] kinds;
+    private final int[] shifts;
+    private final long[] masks;
+    /**
+     * 单元的字节长度
+     */
+    private final int width;
+    private final boolean bigEndian;
+
+    BitUnitField(StructField... members) {
+      int size = members.length;
+      this.accessors = new FieldAccessor[size];
+      this.kinds = new int[size];
+      this.shifts = new int[size];
+      this.masks = new long[size];
+      for (int i = 0; i < size; i++) {
+        StructField member = members[i];
+        Class<?> type = member.getType();
+        accessors[i] = member.getAccessor();
+        kinds[i] = type == boolean.class ? BOOLEAN
+            : type == byte.class ? BYTE
+            : type == short.class ? SHORT
+            : type == int.class ? INT : LONG;
+        shifts[i] = member.getBitOffset();
+        masks[i] = member.getBits() >= 64 ? -1L : (1L << member.getBits()) - 1;
+      }
+      this.width = members[0].getFieldSize();
+      this.bigEndian = !members[0].isLittleEndian();
+    }
+
+    private long pack(Object o) {
+      long unit = 0;
+      for (int i = 0; i < accessors.length; i++) {
+        long v;
+        switch (kinds[i]) {
+          case BOOLEAN:
+            v = accessors[i].getBoolean(o) ? 1 : 0;
+            break;
+          case BYTE:
+            v = accessors[i].getByte(o);
+            break;
+          case SHORT:
+            v = accessors[i].getShort(o);
+            break;
+          case INT:
+            v = accessors[i].getInt(o);
+            break;
+          default:
+            v = accessors[i].getLong(o);
+            break;
+        }
+        unit |= (v & masks[i]) << shifts[i];
+      }
+      return unit;
+    }
+
+    private void unpack(Object o, long unit) {
+      for (int i = 0; i < accessors.length; i++) {
+        long v = (unit >>> shifts[i]) & masks[i];
+        switch (kinds[i]) {
+          case BOOLEAN:
+            accessors[i].setBoolean(o, v != 0);
+            break;
+          case BYTE:
+            accessors[i].setByte(o, (byte) v);
+            break;
+          case SHORT:
+            accessors[i].setShort(o, (short) v);
+            break;
+          case INT:
+            accessors[i].setInt(o, (int) v);
+            break;
+          default:
+            accessors[i].setLong(o, v);
+            break;
+        }
+      }
+    }
+
+    /**
+     * 第一个成员的值
+     */
+    private Object value(long unit) {
+      long v = (unit >>> shifts[0]) & masks[0];
+      switch (kinds[0]) {
+        case BOOLEAN:
+          return v != 0;
+        case BYTE:
+          return (byte) v;
+        case SHORT:
+          return (short) v;
+        case INT:
+          return (int) v;
+        default:
+          return v;
+      }
+    }
+
+    private long readUnit(byte[] d, int p) {
+      return getInteger(d, p, width, bigEndian, true);
+    }
+
+    private long readUnit(ByteBuffer b, int p) {
+      return getInteger(b, p, width, bigEndian, true);
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      putInteger(dest, position, width, pack(o), bigEndian);
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      putInteger(dest, position, width, pack(o), bigEndian);
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      unpack(o, readUnit(data, position));
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return value(readUnit(data, position));
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      unpack(o, readUnit(data, position));
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return value(readUnit(data, position));
+    }
+  }
+
+  /**
+   * 嵌套结构体的基类：解析时展开嵌套结构体的执行计划，每个字段的编解码器和相对偏移保存为数组，
+   * 编解码时直接按偏移执行，不再查找嵌套的结构体
+   */
+  static abstract class AbstractStructField extends AbstractFieldCodec {
+
+    /**
+     * 嵌套结构体的类型
+     */
+    protected final Class<?> type;
+    protected final Instantiator instantiator;
+    /**
+     * 嵌套结构体的字段编解码器
+     */
+    private final FieldCodec[] codecs;
+    /**
+     * 字段的相对偏移
+     */
+    private final int[] positions;
+    /**
+     * 嵌套结构体字段占用的长度
+     */
+    private final int dataSize;
+    /**
+     * 单个结构体占用的长度
+     */
+    protected final int elementSize;
+
+    AbstractStructField(StructField field) {
+      super(field);
+      StructClass nested = field.getStructClass();
+      StructPlan plan = nested.getPlan();
+      this.type = nested.getType();
+      this.instantiator = nested.getInstantiator();
+      FieldCodec[] codecs = new FieldCodec[plan.length()];
+      int[] positions = new int[plan.length()];
+      int count = 0;
+      for (int i = 0; i < plan.length(); i++, count++) {
+        if (plan.field(i).isBitField()) {
+          // 同一个单元的位域合并为一个编解码器
+          int end = bitUnitEnd(plan, i);
+          codecs[count] = createBitUnit(bitUnitMembers(plan, i, end));
+          i = end - 1;
+        } else {
+          codecs[count] = create(plan.field(i));
+        }
+        positions[count] = plan.offset(i);
+      }
+      this.codecs = Arrays.copyOf(codecs, count);
+      this.positions = Arrays.copyOf(positions, count);
+      this.dataSize = plan.getSize();
+      this.elementSize = field.getFieldSize();
+    }
+
+    protected Object newInstance() {
+      return instantiator.create(type);
+    }
+
+    protected void encodeStruct(Object v, byte[] dest, int position) {
+      if (v == null) {
+        Arrays.fill(dest, position, position + elementSize, (byte) 0);
+        return;
+      }
+      for (int i = 0; i < codecs.length; i++) {
+        codecs[i].encode(v, dest, position + positions[i]);
+      }
+      Arrays.fill(dest, position + dataSize, position + elementSize, (byte) 0);
+    }
+
+    protected void encodeStruct(Object v, ByteBuffer dest, int position) {
+      if (v == null) {
+        FieldCodecs.fillZero(dest, position, position + elementSize);
+        return;
+      }
+      for (int i = 0; i < codecs.length; i++) {
+        codecs[i].encode(v, dest, position + positions[i]);
+      }
+      FieldCodecs.fillZero(dest, position + dataSize, position + elementSize);
+    }
+
+    protected Object decodeStruct(Object v, byte[] data, int position, boolean reuse) {
+      if (v == null) {
+        v = newInstance();
+      }
+      for (int i = 0; i < codecs.length; i++) {
+        if (reuse) {
+          codecs[i].decodeInto(v, data, position + positions[i]);
+        } else {
+          codecs[i].decode(v, data, position + positions[i]);
+        }
+      }
+      return v;
+    }
+
+    protected Object decodeStruct(Object v, ByteBuffer data, int position, boolean reuse) {
+      if (v == null) {
+        v = newInstance();
+      }
+      for (int i = 0; i < codecs.length; i++) {
+        if (reuse) {
+          codecs[i].decodeInto(v, data, position + positions[i]);
+        } else {
+          codecs[i].decode(v, data, position + positions[i]);
+        }
+      }
+      return v;
+    }
+  }
+
+  static final class StructObjectField extends AbstractStructField {
+
+    StructObjectField(StructField field) {
+      super(field);
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      encodeStruct(f.get(o), dest, position);
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      encodeStruct(f.get(o), dest, position);
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      f.set(o, decodeStruct(null, data, position, false));
+    }
+
+    @Override
+    public void decodeInto(Object o, byte[] data, int position) {
+      Object v = f.get(o);
+      if (v == null) {
+        f.set(o, decodeStruct(null, data, position, false));
+      } else {
+        decodeStruct(v, data, position, true);
+      }
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return decodeStruct(null, data, position, false);
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      f.set(o, decodeStruct(null, data, position, false));
+    }
+
+    @Override
+    public void decodeInto(Object o, ByteBuffer data, int position) {
+      Object v = f.get(o);
+      if (v == null) {
+        f.set(o, decodeStruct(null, data, position, false));
+      } else {
+        decodeStruct(v, data, position, true);
+      }
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return decodeStruct(null, data, position, false);
+    }
+  }
+
+  static final class StructArrayField extends AbstractStructField {
+
+    StructArrayField(StructField field) {
+      super(field);
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      Object[] array = (Object[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      for (int i = 0, len = checkLength(array.length); i < len; i++) {
+        encodeStruct(array[i], dest, position + i * elementSize);
+      }
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      Object[] array = (Object[]) f.get(o);
+      if (array == null) {
+        fillZero(dest, position);
+        return;
+      }
+      for (int i = 0, len = checkLength(array.length); i < len; i++) {
+        encodeStruct(array[i], dest, position + i * elementSize);
+      }
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      f.set(o, read(data, position));
+    }
+
+    @Override
+    public void decodeInto(Object o, byte[] data, int position) {
+      Object[] array = (Object[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        f.set(o, read(data, position));
+        return;
+      }
+      for (int i = 0; i < array.length; i++) {
+        array[i] = decodeStruct(array[i], data, position + i * elementSize, true);
+      }
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      Object[] array = (Object[]) Array.newInstance(type, field.getArrayLength());
+      for (int i = 0; i < array.length; i++) {
+        array[i] = decodeStruct(null, data, position + i * elementSize, false);
+      }
+      return array;
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      f.set(o, read(data, position));
+    }
+
+    @Override
+    public void decodeInto(Object o, ByteBuffer data, int position) {
+      Object[] array = (Object[]) f.get(o);
+      if (array == null || array.length != field.getArrayLength()) {
+        f.set(o, read(data, position));
+        return;
+      }
+      for (int i = 0; i < array.length; i++) {
+        array[i] = decodeStruct(array[i], data, position + i * elementSize, true);
+      }
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      Object[] array = (Object[]) Array.newInstance(type, field.getArrayLength());
+      for (int i = 0; i < array.length; i++) {
+        array[i] = decodeStruct(null, data, position + i * elementSize, false);
+      }
+      return array;
+    }
+  }
+
+  /**
+   * 使用转换器的字段
+   */
+  static final class ConverterField implements FieldCodec {
+
+    private final StructField field;
+
+    ConverterField(StructField field) {
+      this.field = field;
+    }
+
+    @Override
+    public void encode(Object o, byte[] dest, int position) {
+      field.getConverter().write(field, field.getAccessor().get(o), dest, position);
+    }
+
+    @Override
+    public void encode(Object o, ByteBuffer dest, int position) {
+      field.getConverter().write(field, field.getAccessor().get(o), dest, position);
+    }
+
+    @Override
+    public void decode(Object o, byte[] data, int position) {
+      Object value = field.getConverter().parse(field, data, position);
+      if (value != null) {
+        field.getAccessor().set(o, value);
+      }
+    }
+
+    @Override
+    public Object read(byte[] data, int position) {
+      return field.getConverter().parse(field, data, position);
+    }
+
+    @Override
+    public void decode(Object o, ByteBuffer data, int position) {
+      Object value = field.getConverter().parse(field, data, position);
+      if (value != null) {
+        field.getAccessor().set(o, value);
+      }
+    }
+
+    @Override
+    public Object read(ByteBuffer data, int position) {
+      return field.getConverter().parse(field, data, position);
+    }
+  }
+
+}
@@ -0,0 +1,24 @@
+package com.benefitj.javastruct;
+
+/**
+ * 编译期生成的编解码器，通过 ServiceLoader 注册
+ * (META-INF/services/com.benefitj.javastruct.GeneratedStructCodec)
+ */
+public interface GeneratedStructCodec extends StructCodec {
+
+  /**
+   * 结构体类型
+   */
+  Class<?> getType();
+
+  /**
+   * 结构体长度
+   */
+  int getSize();
+
+  /**
+   * 创建对象
+   */
+  Object newInstance();
+
+}
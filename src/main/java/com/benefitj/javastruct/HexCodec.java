@@ -0,0 +1,127 @@
+package com.benefitj.javastruct;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * 查表实现的16进制编解码，直接读写调用方的数组，不创建中间数组
+ */
+public final class HexCodec {
+
+  private static final char[] UPPER = "0123456789ABCDEF".toCharArray();
+  private static final char[] LOWER = "0123456789abcdef".toCharArray();
+  /**
+   * 字符对应的数值，非16进制字符为 -1
+   */
+  private static final int[] DIGITS = new int[128];
+
+  static {
+    Arrays.fill(DIGITS, -1);
+    for (int i = 0; i < 16; i++) {
+      DIGITS[UPPER[i]] = i;
+      DIGITS[LOWER[i]] = i;
+    }
+  }
+
+  private HexCodec() {
+  }
+
+  /**
+   * 字符对应的数值
+   *
+   * @param c 字符
+   * @return 返回数值，非16进制字符返回 -1
+   */
+  public static int digit(char c) {
+    return c < 128 ? DIGITS[c] : -1;
+  }
+
+  /**
+   * 解码16进制字符串到目标数组，奇数长度时忽略最后一个字符
+   *
+   * @param hex 16进制字符串
+   * @param dst 目标数组
+   * @param off 目标数组开始的位置
+   * @return 返回写入的字节数
+   */
+  public static int decode(CharSequence hex, byte[] dst, int off) {
+    return decode(hex, 0, hex.length(), dst, off);
+  }
+
+  /**
+   * 解码16进制字符串的一段到目标数组，奇数长度时忽略最后一个字符
+   *
+   * @param hex   16进制字符串
+   * @param start 开始的字符位置
+   * @param end   结束的字符位置(不包含)
+   * @param dst   目标数组
+   * @param off   目标数组开始的位置
+   * @return 返回写入的字节数
+   */
+  public static int decode(CharSequence hex, int start, int end, byte[] dst, int off) {
+    int length = (end - start) >> 1;
+    for (int i = 0, c = start; i < length; i++, c += 2) {
+      dst[off + i] = (byte) (digit(hex.charAt(c)) << 4 | digit(hex.charAt(c + 1)));
+    }
+    return length;
+  }
+
+  /**
+   * 编码数组的一段到字符数组
+   *
+   * @param src       数据
+   * @param off       开始的位置
+   * @param len       长度
+   * @param dst       目标字符数组
+   * @param dstOff    目标字符数组开始的位置
+   * @param lowerCase 是否小写
+   * @return 返回写入的字符数
+   */
+  public static int encode(byte[] src, int off, int len, char[] dst, int dstOff, boolean lowerCase) {
+    char[] table = lowerCase ? LOWER : UPPER;
+    for (int i = 0, c = dstOff; i < len; i++) {
+      int b = src[off + i];
+      dst[c++] = table[(b >> 4) & 0x0F];
+      dst[c++] = table[b & 0x0F];
+    }
+    return len << 1;
+  }
+
+  /**
+   * 编码数组的一段并追加到输出中
+   *
+   * @param src       数据
+   * @param off       开始的位置
+   * @param len       长度
+   * @param out       输出
+   * @param lowerCase 是否小写
+   */
+  public static void encode(byte[] src, int off, int len, Appendable out, boolean lowerCase) {
+    char[] table = lowerCase ? LOWER : UPPER;
+    try {
+      for (int i = 0; i < len; i++) {
+        int b = src[off + i];
+        out.append(table[(b >> 4) & 0x0F]).append(table[b & 0x0F]);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * 编码数组的一段为16进制字符串
+   *
+   * @param src       数据
+   * @param off       开始的位置
+   * @param len       长度
+   * @param lowerCase 是否小写
+   * @return 返回16进制字符串
+   */
+  public static String toHex(byte[] src, int off, int len, boolean lowerCase) {
+    char[] chars = new char[len << 1];
+    encode(src, off, len, chars, 0, lowerCase);
+    return new String(chars);
+  }
+
+}
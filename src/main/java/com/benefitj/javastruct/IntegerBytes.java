@@ -0,0 +1,381 @@
+package com.benefitj.javastruct;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 整数的字节读写：1~8 个字节的整数按长度展开读写，不使用循环和临时数组，
+ * 供字段编解码器和 {@link BinaryHelper} 共用
+ */
+final class IntegerBytes {
+
+  private IntegerBytes() {
+  }
+
+  static short getShort(byte[] d, int p, boolean bigEndian) {
+    return bigEndian
+        ? (short) ((d[p] << 8) | (d[p + 1] & 0xFF))
+        : (short) ((d[p + 1] << 8) | (d[p] & 0xFF));
+  }
+
+  static int getInt(byte[] d, int p, boolean bigEndian) {
+    return bigEndian
+        ? (d[p] << 24) | ((d[p + 1] & 0xFF) << 16) | ((d[p + 2] & 0xFF) << 8) | (d[p + 3] & 0xFF)
+        : (d[p + 3] << 24) | ((d[p + 2] & 0xFF) << 16) | ((d[p + 1] & 0xFF) << 8) | (d[p] & 0xFF);
+  }
+
+  static long getLong(byte[] d, int p, boolean bigEndian) {
+    return bigEndian
+        ? ((long) getInt(d, p, true) << 32) | (getInt(d, p + 4, true) & 0xFFFFFFFFL)
+        : ((long) getInt(d, p + 4, false) << 32) | (getInt(d, p, false) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * 读取3个字节的有符号整数
+   */
+  static int getInt24(byte[] d, int p, boolean bigEndian) {
+    return bigEndian
+        ? (d[p] << 16) | ((d[p + 1] & 0xFF) << 8) | (d[p + 2] & 0xFF)
+        : (d[p + 2] << 16) | ((d[p + 1] & 0xFF) << 8) | (d[p] & 0xFF);
+  }
+
+  /**
+   * 读取5个字节的有符号整数：最高位字节扩展符号，低4个字节按整数读取
+   */
+  static long getLong40(byte[] d, int p, boolean bigEndian) {
+    return bigEndian
+        ? ((long) d[p] << 32) | (getInt(d, p + 1, true) & 0xFFFFFFFFL)
+        : ((long) d[p + 4] << 32) | (getInt(d, p, false) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * 读取6个字节的有符号整数
+   */
+  static long getLong48(byte[] d, int p, boolean bigEndian) {
+    return bigEndian
+        ? ((long) getShort(d, p, true) << 32) | (getInt(d, p + 2, true) & 0xFFFFFFFFL)
+        : ((long) getShort(d, p + 4, false) << 32) | (getInt(d, p, false) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * 读取7个字节的有符号整数
+   */
+  static long getLong56(byte[] d, int p, boolean bigEndian) {
+    return bigEndian
+        ? ((long) getInt24(d, p, true) << 32) | (getInt(d, p + 3, true) & 0xFFFFFFFFL)
+        : ((long) getInt24(d, p + 4, false) << 32) | (getInt(d, p, false) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * 无符号整数的掩码，有符号或8个字节时不做掩码
+   */
+  static long mask(int width, boolean unsigned) {
+    return unsigned && width < 8 ? (1L << (width << 3)) - 1 : -1L;
+  }
+
+  /**
+   * 读取整数，长度为1~8个字节，无符号时高位补0；每种长度按字节展开，不使用循环和临时数组
+   */
+  static long getInteger(byte[] d, int p, int width, boolean bigEndian, boolean unsigned) {
+    long v;
+    switch (width) {
+      case 1:
+        v = d[p];
+        break;
+      case 2:
+        v = getShort(d, p, bigEndian);
+        break;
+      case 3:
+        v = getInt24(d, p, bigEndian);
+        break;
+      case 4:
+        v = getInt(d, p, bigEndian);
+        break;
+      case 5:
+        v = getLong40(d, p, bigEndian);
+        break;
+      case 6:
+        v = getLong48(d, p, bigEndian);
+        break;
+      case 7:
+        v = getLong56(d, p, bigEndian);
+        break;
+      case 8:
+        return getLong(d, p, bigEndian);
+      default:
+        throw new IllegalArgumentException("整数的长度必须为1~8个字节: " + width);
+    }
+    return v & mask(width, unsigned);
+  }
+
+  static void putShort(byte[] d, int p, short v, boolean bigEndian) {
+    if (bigEndian) {
+      d[p] = (byte) (v >> 8);
+      d[p + 1] = (byte) v;
+    } else {
+      d[p] = (byte) v;
+      d[p + 1] = (byte) (v >> 8);
+    }
+  }
+
+  static void putInt(byte[] d, int p, int v, boolean bigEndian) {
+    if (bigEndian) {
+      d[p] = (byte) (v >> 24);
+      d[p + 1] = (byte) (v >> 16);
+      d[p + 2] = (byte) (v >> 8);
+      d[p + 3] = (byte) v;
+    } else {
+      d[p] = (byte) v;
+      d[p + 1] = (byte) (v >> 8);
+      d[p + 2] = (byte) (v >> 16);
+      d[p + 3] = (byte) (v >> 24);
+    }
+  }
+
+  static void putLong(byte[] d, int p, long v, boolean bigEndian) {
+    if (bigEndian) {
+      putInt(d, p, (int) (v >> 32), true);
+      putInt(d, p + 4, (int) v, true);
+    } else {
+      putInt(d, p, (int) v, false);
+      putInt(d, p + 4, (int) (v >> 32), false);
+    }
+  }
+
+  static void putInt24(byte[] d, int p, int v, boolean bigEndian) {
+    if (bigEndian) {
+      d[p] = (byte) (v >> 16);
+      d[p + 1] = (byte) (v >> 8);
+      d[p + 2] = (byte) v;
+    } else {
+      d[p] = (byte) v;
+      d[p + 1] = (byte) (v >> 8);
+      d[p + 2] = (byte) (v >> 16);
+    }
+  }
+
+  static void putLong40(byte[] d, int p, long v, boolean bigEndian) {
+    if (bigEndian) {
+      d[p] = (byte) (v >> 32);
+      putInt(d, p + 1, (int) v, true);
+    } else {
+      putInt(d, p, (int) v, false);
+      d[p + 4] = (byte) (v >> 32);
+    }
+  }
+
+  static void putLong48(byte[] d, int p, long v, boolean bigEndian) {
+    if (bigEndian) {
+      putShort(d, p, (short) (v >> 32), true);
+      putInt(d, p + 2, (int) v, true);
+    } else {
+      putInt(d, p, (int) v, false);
+      putShort(d, p + 4, (short) (v >> 32), false);
+    }
+  }
+
+  static void putLong56(byte[] d, int p, long v, boolean bigEndian) {
+    if (bigEndian) {
+      putInt24(d, p, (int) (v >> 32), true);
+      putInt(d, p + 3, (int) v, true);
+    } else {
+      putInt(d, p, (int) v, false);
+      putInt24(d, p + 4, (int) (v >> 32), false);
+    }
+  }
+
+  /**
+   * 写入整数的低位字节，长度为1~8个字节，每种长度按字节展开
+   */
+  static void putInteger(byte[] d, int p, int width, long v, boolean bigEndian) {
+    switch (width) {
+      case 1:
+        d[p] = (byte) v;
+        break;
+      case 2:
+        putShort(d, p, (short) v, bigEndian);
+        break;
+      case 3:
+        putInt24(d, p, (int) v, bigEndian);
+        break;
+      case 4:
+        putInt(d, p, (int) v, bigEndian);
+        break;
+      case 5:
+        putLong40(d, p, v, bigEndian);
+        break;
+      case 6:
+        putLong48(d, p, v, bigEndian);
+        break;
+      case 7:
+        putLong56(d, p, v, bigEndian);
+        break;
+      case 8:
+        putLong(d, p, v, bigEndian);
+        break;
+      default:
+        throw new IllegalArgumentException("整数的长度必须为1~8个字节: " + width);
+    }
+  }
+
+  static boolean isBigEndian(ByteBuffer b) {
+    return b.order() == ByteOrder.BIG_ENDIAN;
+  }
+
+  static short getShort(ByteBuffer b, int p, boolean bigEndian) {
+    short v = b.getShort(p);
+    return bigEndian == isBigEndian(b) ? v : Short.reverseBytes(v);
+  }
+
+  static int getInt(ByteBuffer b, int p, boolean bigEndian) {
+    int v = b.getInt(p);
+    return bigEndian == isBigEndian(b) ? v : Integer.reverseBytes(v);
+  }
+
+  static long getLong(ByteBuffer b, int p, boolean bigEndian) {
+    long v = b.getLong(p);
+    return bigEndian == isBigEndian(b) ? v : Long.reverseBytes(v);
+  }
+
+  static int getInt24(ByteBuffer b, int p, boolean bigEndian) {
+    return bigEndian
+        ? (b.get(p) << 16) | ((b.get(p + 1) & 0xFF) << 8) | (b.get(p + 2) & 0xFF)
+        : (b.get(p + 2) << 16) | ((b.get(p + 1) & 0xFF) << 8) | (b.get(p) & 0xFF);
+  }
+
+  static long getLong40(ByteBuffer b, int p, boolean bigEndian) {
+    return bigEndian
+        ? ((long) b.get(p) << 32) | (getInt(b, p + 1, true) & 0xFFFFFFFFL)
+        : ((long) b.get(p + 4) << 32) | (getInt(b, p, false) & 0xFFFFFFFFL);
+  }
+
+  static long getLong48(ByteBuffer b, int p, boolean bigEndian) {
+    return bigEndian
+        ? ((long) getShort(b, p, true) << 32) | (getInt(b, p + 2, true) & 0xFFFFFFFFL)
+        : ((long) getShort(b, p + 4, false) << 32) | (getInt(b, p, false) & 0xFFFFFFFFL);
+  }
+
+  static long getLong56(ByteBuffer b, int p, boolean bigEndian) {
+    return bigEndian
+        ? ((long) getInt24(b, p, true) << 32) | (getInt(b, p + 3, true) & 0xFFFFFFFFL)
+        : ((long) getInt24(b, p + 4, false) << 32) | (getInt(b, p, false) & 0xFFFFFFFFL);
+  }
+
+  static long getInteger(ByteBuffer b, int p, int width, boolean bigEndian, boolean unsigned) {
+    long v;
+    switch (width) {
+      case 1:
+        v = b.get(p);
+        break;
+      case 2:
+        v = getShort(b, p, bigEndian);
+        break;
+      case 3:
+        v = getInt24(b, p, bigEndian);
+        break;
+      case 4:
+        v = getInt(b, p, bigEndian);
+        break;
+      case 5:
+        v = getLong40(b, p, bigEndian);
+        break;
+      case 6:
+        v = getLong48(b, p, bigEndian);
+        break;
+      case 7:
+        v = getLong56(b, p, bigEndian);
+        break;
+      case 8:
+        return getLong(b, p, bigEndian);
+      default:
+        throw new IllegalArgumentException("整数的长度必须为1~8个字节: " + width);
+    }
+    return v & mask(width, unsigned);
+  }
+
+  static void putShort(ByteBuffer b, int p, short v, boolean bigEndian) {
+    b.putShort(p, bigEndian == isBigEndian(b) ? v : Short.reverseBytes(v));
+  }
+
+  static void putInt(ByteBuffer b, int p, int v, boolean bigEndian) {
+    b.putInt(p, bigEndian == isBigEndian(b) ? v : Integer.reverseBytes(v));
+  }
+
+  static void putLong(ByteBuffer b, int p, long v, boolean bigEndian) {
+    b.putLong(p, bigEndian == isBigEndian(b) ? v : Long.reverseBytes(v));
+  }
+
+  static void putInt24(ByteBuffer b, int p, int v, boolean bigEndian) {
+    if (bigEndian) {
+      b.put(p, (byte) (v >> 16));
+      b.put(p + 1, (byte) (v >> 8));
+      b.put(p + 2, (byte) v);
+    } else {
+      b.put(p, (byte) v);
+      b.put(p + 1, (byte) (v >> 8));
+      b.put(p + 2, (byte) (v >> 16));
+    }
+  }
+
+  static void putLong40(ByteBuffer b, int p, long v, boolean bigEndian) {
+    if (bigEndian) {
+      b.put(p, (byte) (v >> 32));
+      putInt(b, p + 1, (int) v, true);
+    } else {
+      putInt(b, p, (int) v, false);
+      b.put(p + 4, (byte) (v >> 32));
+    }
+  }
+
+  static void putLong48(ByteBuffer b, int p, long v, boolean bigEndian) {
+    if (bigEndian) {
+      putShort(b, p, (short) (v >> 32), true);
+      putInt(b, p + 2, (int) v, true);
+    } else {
+      putInt(b, p, (int) v, false);
+      putShort(b, p + 4, (short) (v >> 32), false);
+    }
+  }
+
+  static void putLong56(ByteBuffer b, int p, long v, boolean bigEndian) {
+    if (bigEndian) {
+      putInt24(b, p, (int) (v >> 32), true);
+      putInt(b, p + 3, (int) v, true);
+    } else {
+      putInt(b, p, (int) v, false);
+      putInt24(b, p + 4, (int) (v >> 32), false);
+    }
+  }
+
+  static void putInteger(ByteBuffer b, int p, int width, long v, boolean bigEndian) {
+    switch (width) {
+      case 1:
+        b.put(p, (byte) v);
+        break;
+      case 2:
+        putShort(b, p, (short) v, bigEndian);
+        break;
+      case 3:
+        putInt24(b, p, (int) v, bigEndian);
+        break;
+      case 4:
+        putInt(b, p, (int) v, bigEndian);
+        break;
+      case 5:
+        putLong40(b, p, v, bigEndian);
+        break;
+      case 6:
+        putLong48(b, p, v, bigEndian);
+        break;
+      case 7:
+        putLong56(b, p, v, bigEndian);
+        break;
+      case 8:
+        putLong(b, p, v, bigEndian);
+        break;
+      default:
+        throw new IllegalArgumentException("整数的长度必须为1~8个字节: " + width);
+    }
+  }
+
+}
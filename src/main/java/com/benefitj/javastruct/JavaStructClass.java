@@ -19,8 +19,8 @@ public @interface JavaStructClass {
   int value() default 0;
 
   /**
-   * 实例化器
+   * 实例化器，默认使用 {@link ConstructorInstantiator}
    */
-  Class<Instantiator> instantiator() default Instantiator.class;
+  Class<? extends Instantiator> instantiator() default Instantiator.class;
 
 }
@@ -17,9 +17,10 @@ public @interface JavaStructField {
 
   /**
    * 单个元素的比例，如：
-   * int[]{20, 20, 45}，单个元素为4字节，单个长度(4) * 数组长度(3) = 总长度(12字节)
+   * int[]{20, 20, 45}，单个元素为4字节，单个长度(4) * 数组长度(3) = 总长度(12字节)；
+   * 嵌套的结构体可以不指定，默认为结构体的长度
    */
-  int size();
+  int size() default 0;
 
   /**
    * 字节顺序
@@ -37,8 +38,37 @@ public @interface JavaStructField {
   String charset() default "";
 
   /**
-   * 数组长度
+   * 数组长度；变长数组为最大长度，0 表示不限制
    */
   int arrayLength() default 0;
 
+  /**
+   * 变长字段的长度字段：前面声明的整数字段，保存数组的元素数量或字符串的字节数；
+   * 编码时写入实际的长度，不使用长度字段的值
+   */
+  String lengthField() default "";
+
+  /**
+   * 变长字段的长度前缀：字段数据之前的长度所占的字节数(1~4)，按字段的字节顺序保存
+   * 数组的元素数量或字符串的字节数；0 表示没有长度前缀
+   */
+  int lengthPrefix() default 0;
+
+  /**
+   * 位域的位数，0 表示不是位域；相邻的位域共享 size 个字节的单元，
+   * 单元只读写一次，成员按位移和掩码取值(无符号)
+   */
+  int bits() default 0;
+
+  /**
+   * 位域在单元中的起始位，0 为单元数值的最低位；-1 表示紧接上一个位域
+   */
+  int bitOffset() default -1;
+
+  /**
+   * 是否为无符号整数：比类型短的整数及其数组不扩展符号，直接读到基本类型，
+   * 如 size = 2 的 int/int[] 为 uint16，size = 4 的 long/long[] 为 uint32
+   */
+  boolean unsigned() default false;
+
 }
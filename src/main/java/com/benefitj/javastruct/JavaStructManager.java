@@ -5,11 +5,27 @@ import com.benefitj.javastruct.convert.DateTimeConverter;
 import com.benefitj.javastruct.convert.DefaultPrimitiveConverter;
 import com.benefitj.javastruct.convert.Converter;
 import com.benefitj.javastruct.convert.HexStringConverter;
+import com.benefitj.javastruct.convert.StructConverter;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Queue;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * 结构体管理
@@ -21,15 +37,25 @@ public class JavaStructManager {
   /**
    * 字段解析器
    */
-  private final Map<Class<?>, Converter<?>> converters = Collections.synchronizedMap(new LinkedHashMap<>());
+  private final Map<Class<?>, Converter<?>> converters = new CopyOnWriteMap<>();
   /**
    * 实例化器
    */
-  private final Map<Class<?>, Instantiator> instantiators = Collections.synchronizedMap(new LinkedHashMap<>());
+  private final Map<Class<?>, Instantiator> instantiators = new CopyOnWriteMap<>();
   /**
-   * 缓存的类
+   * 缓存的类：结构体信息保存在类自身上，读取不加锁，类被卸载时一起回收
    */
-  private final Map<Class, StructClass> structClasses = new WeakHashMap<>();
+  private final ClassValue<StructClassHolder> structClasses = new ClassValue<StructClassHolder>() {
+    @Override
+    protected StructClassHolder computeValue(Class<?> type) {
+      return new StructClassHolder();
+    }
+  };
+  /**
+   * 提前注册的结构体，按注册顺序保存弱引用，解析耗时保存在 {@link StructClassHolder} 上，
+   * 不阻止类被卸载
+   */
+  private final Queue<WeakReference<Class<?>>> registered = new ConcurrentLinkedQueue<>();
   /**
    * 字符串编码
    */
@@ -42,6 +68,24 @@ public class JavaStructManager {
    * 类结构解析对象
    */
   private StructResolver structResolver;
+  /**
+   * 是否优先使用编译期生成的编解码器
+   */
+  private boolean useGeneratedCodec = true;
+  /**
+   * 编译期生成的编解码器
+   */
+  private final ClassValue<GeneratedStructCodec> generatedCodecs = new ClassValue<GeneratedStructCodec>() {
+    @Override
+    protected GeneratedStructCodec computeValue(Class<?> type) {
+      for (GeneratedStructCodec codec : ServiceLoader.load(GeneratedStructCodec.class, type.getClassLoader())) {
+        if (codec.getType() == type) {
+          return codec;
+        }
+      }
+      return null;
+    }
+  };
 
   public JavaStructManager() {
     this(true);
@@ -61,9 +105,12 @@ public class JavaStructManager {
     this.addConverter(new DefaultPrimitiveConverter());
     this.addConverter(new DateTimeConverter());
     this.addConverter(new HexStringConverter());
+    this.addConverter(new StructConverter());
 
     // 默认的实例化器
     this.addInstantiator(Instantiator.class, new DefaultInstantiator());
+    this.addInstantiator(new ConstructorInstantiator());
+    this.addInstantiator(new PooledInstantiator());
 
     if (this.structResolver == null) {
       this.structResolver = new DefaultStructResolver();
@@ -86,8 +133,12 @@ public class JavaStructManager {
     this.structResolver = structResolver;
   }
 
-  public Map<Class, StructClass> getStructClasses() {
-    return structClasses;
+  public boolean isUseGeneratedCodec() {
+    return useGeneratedCodec;
+  }
+
+  public void setUseGeneratedCodec(boolean useGeneratedCodec) {
+    this.useGeneratedCodec = useGeneratedCodec;
   }
 
   /**
@@ -98,10 +149,144 @@ public class JavaStructManager {
    * @return 返回结构体信息
    */
   public StructClass getStructClass(Class<?> type, boolean create) {
-    if (create) {
-      return this.getStructClasses().computeIfAbsent(type, this::parseStructClass);
+    StructClassHolder holder = structClasses.get(type);
+    StructClass structClass = holder.structClass;
+    if (structClass != null || !create) {
+      return structClass;
+    }
+    // 只锁定当前的类，多个线程同时解析时只解析一次
+    synchronized (holder) {
+      if ((structClass = holder.structClass) == null) {
+        holder.structClass = structClass = parseStructClass(type);
+      }
+      return structClass;
+    }
+  }
+
+  /**
+   * 提前解析结构体，避免第一次编解码时解析
+   *
+   * @param types 结构体类型
+   * @return 返回解析的结构体
+   */
+  public List<StructClass> register(Class<?>... types) {
+    List<StructClass> structClasses = new ArrayList<>(types.length);
+    for (Class<?> type : types) {
+      long start = System.nanoTime();
+      StructClass structClass = getStructClass(type, true);
+      long time = System.nanoTime() - start;
+      StructClassHolder holder = this.structClasses.get(type);
+      // 同一个类只注册一次
+      synchronized (holder) {
+        if (holder.resolveNanos < 0) {
+          holder.resolveNanos = time;
+          registered.add(new WeakReference<Class<?>>(type));
+        }
+      }
+      structClasses.add(structClass);
+    }
+    return structClasses;
+  }
+
+  /**
+   * 扫描包(包含子包)下被 {@link JavaStructClass} 注解的类并注册
+   *
+   * @param packageNames 包名
+   * @return 返回解析的结构体
+   */
+  public List<StructClass> scan(String... packageNames) {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    if (loader == null) {
+      loader = getClass().getClassLoader();
+    }
+    List<StructClass> structClasses = new ArrayList<>();
+    for (String packageName : packageNames) {
+      List<Class<?>> types = StructScanner.scan(packageName, loader);
+      structClasses.addAll(register(types.toArray(new Class<?>[0])));
+    }
+    return structClasses;
+  }
+
+  /**
+   * 已注册的结构体
+   */
+  public Set<Class<?>> getRegistered() {
+    return Collections.unmodifiableSet(getResolveTimes().keySet());
+  }
+
+  /**
+   * 已注册的结构体和解析耗时(纳秒)，移除已被卸载的类
+   */
+  private Map<Class<?>, Long> getResolveTimes() {
+    Map<Class<?>, Long> resolveTimes = new LinkedHashMap<>();
+    for (Iterator<WeakReference<Class<?>>> itr = registered.iterator(); itr.hasNext(); ) {
+      Class<?> type = itr.next().get();
+      if (type != null) {
+        resolveTimes.put(type, structClasses.get(type).resolveNanos);
+      } else {
+        itr.remove();
+      }
+    }
+    return resolveTimes;
+  }
+
+  /**
+   * 预热已注册的结构体：用全0的数据反复解码、编码和解码到已有对象，
+   * 让编解码的路径在处理真实数据之前完成 JIT 编译
+   *
+   * @param iterations 每个结构体的次数
+   * @return 返回解析和预热的耗时
+   */
+  public StartupReport warmUp(int iterations) {
+    if (iterations < 0) {
+      throw new IllegalArgumentException("预热次数不能小于0: " + iterations);
+    }
+    Map<Class<?>, Long> resolveTimes = getResolveTimes();
+    Map<Class<?>, Long> warmUpTimes = new LinkedHashMap<>();
+    for (Class<?> type : resolveTimes.keySet()) {
+      StructClass structClass = getStructClass(type, true);
+      long start = System.nanoTime();
+      warmUp(structClass, iterations);
+      warmUpTimes.put(type, System.nanoTime() - start);
+    }
+    return new StartupReport(resolveTimes, warmUpTimes, iterations);
+  }
+
+  /**
+   * 预热结构体
+   *
+   * @param structClass 结构体
+   * @param iterations  次数
+   */
+  protected void warmUp(StructClass structClass, int iterations) {
+    int size = structClass.getSize();
+    byte[] data = new byte[size];
+    ByteBuffer buf = ByteBuffer.allocate(size);
+    Object o = structClass.parseObject(data, 0, size);
+    for (int i = 0; i < iterations; i++) {
+      structClass.toBytes(o, data, 0);
+      o = structClass.parseObject(data, 0, size);
+      structClass.parseInto(o, data, 0);
+      buf.clear();
+      structClass.encode(o, buf);
+      structClass.parseInto(o, buf, 0);
+    }
+  }
+
+  /**
+   * 移除缓存的结构体信息，下次获取时重新解析
+   *
+   * @param type 对象类型
+   * @return 返回移除的结构体信息
+   */
+  public StructClass removeStructClass(Class<?> type) {
+    StructClassHolder holder = structClasses.get(type);
+    synchronized (holder) {
+      StructClass structClass = holder.structClass;
+      holder.structClass = null;
+      holder.plannedStructClass = null;
+      return structClass;
     }
-    return this.getStructClasses().get(type);
   }
 
   /**
@@ -162,6 +347,59 @@ public class JavaStructManager {
     return getStructClass(o.getClass(), true).toBytes(o);
   }
 
+  /**
+   * 对象编码后的长度，不编码对象；可用于预先分配缓冲
+   *
+   * @param o 对象
+   * @return 返回编码后的长度
+   */
+  public int sizeOf(Object o) {
+    return getStructClass(o.getClass(), true).sizeOf(o);
+  }
+
+  /**
+   * 转换对象并写入目标数组
+   *
+   * @param o      对象
+   * @param dest   目标数组
+   * @param offset 开始的位置
+   * @return 返回写入的长度
+   */
+  public int toBytes(Object o, byte[] dest, int offset) {
+    return getStructClass(o.getClass(), true).toBytes(o, dest, offset);
+  }
+
+  /**
+   * 批量转换对象，连续写入目标数组；相同类型的对象只查找一次结构体
+   *
+   * @param items  对象
+   * @param dest   目标数组
+   * @param offset 开始的位置
+   * @return 返回写入的长度
+   */
+  public int toBytes(Collection<?> items, byte[] dest, int offset) {
+    int start = offset;
+    StructClass structClass = null;
+    for (Object o : items) {
+      if (structClass == null || structClass.getType() != o.getClass()) {
+        structClass = getStructClass(o.getClass(), true);
+      }
+      offset += structClass.toBytes(o, dest, offset);
+    }
+    return offset - start;
+  }
+
+  /**
+   * 转换对象并写入缓冲的当前位置，写入后 position 前移结构体的长度
+   *
+   * @param o    对象
+   * @param dest 目标缓冲
+   * @return 返回写入的长度
+   */
+  public int encode(Object o, ByteBuffer dest) {
+    return getStructClass(o.getClass(), true).encode(o, dest);
+  }
+
   /**
    * 解析结构体数据
    *
@@ -188,13 +426,249 @@ public class JavaStructManager {
   }
 
   /**
-   * 解析结构体
+   * 批量解析连续的结构体数据
+   *
+   * @param type   类型
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param count  结构体数量
+   * @param <T>    对象类型
+   * @return 返回解析的对象
+   */
+  public <T> List<T> parseArray(Class<T> type, byte[] data, int offset, int count) {
+    return getStructClass(type, true).parseArray(data, offset, count);
+  }
+
+  /**
+   * 批量解析连续的结构体数据，并添加到集合中
+   *
+   * @param type   类型
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param count  结构体数量
+   * @param dest   目标集合
+   * @param <T>    对象类型
+   * @return 返回解析的数量
+   */
+  public <T> int parseInto(Class<T> type, byte[] data, int offset, int count, List<? super T> dest) {
+    return getStructClass(type, true).parseInto(data, offset, count, dest);
+  }
+
+  /**
+   * 使用公共的 ForkJoinPool 并行解析缓冲中的完整记录
+   *
+   * @param type 类型
+   * @param data 数据缓冲
+   * @param <T>  对象类型
+   * @return 返回解析的对象
+   */
+  public <T> List<T> parseAllParallel(Class<T> type, ByteBuffer data) {
+    return parseAllParallel(type, data, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * 并行解析缓冲中的完整记录
+   *
+   * @param type 类型
+   * @param data 数据缓冲
+   * @param pool 线程池
+   * @param <T>  对象类型
+   * @return 返回解析的对象
+   */
+  public <T> List<T> parseAllParallel(Class<T> type, ByteBuffer data, ForkJoinPool pool) {
+    return getStructClass(type, true).parseAllParallel(data, pool);
+  }
+
+  /**
+   * 缓冲中完整记录的分割迭代器，可通过 StreamSupport.stream(spliterator, true) 并行处理
+   *
+   * @param type 类型
+   * @param data 数据缓冲
+   * @param <T>  对象类型
+   * @return 返回分割迭代器
+   */
+  public <T> Spliterator<T> spliterator(Class<T> type, ByteBuffer data) {
+    return new StructSpliterator<>(getStructClass(type, true), data);
+  }
+
+  /**
+   * 解析数组中一段区域的结构体数据
+   *
+   * @param type   类型
+   * @param data   数据
+   * @param start  开始的位置
+   * @param length 区域的长度
+   * @param <T>    对象类型
+   * @return 返回解析的对象
+   */
+  public <T> T parseObject(Class<T> type, byte[] data, int start, int length) {
+    return getStructClass(type, true).parseObject(data, start, length);
+  }
+
+  /**
+   * 解析结构体数据到已有的对象，数组字段的长度一致时直接填充原数组
+   *
+   * @param target 目标对象
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param <T>    对象类型
+   * @return 返回目标对象
+   */
+  public <T> T parseInto(T target, byte[] data, int offset) {
+    return getStructClass(target.getClass(), true).parseInto(target, data, offset);
+  }
+
+  /**
+   * 按绝对位置从缓冲中解析结构体数据到已有的对象，不改变缓冲的 position
+   *
+   * @param target 目标对象
+   * @param data   数据缓冲
+   * @param offset 开始的位置
+   * @param <T>    对象类型
+   * @return 返回目标对象
+   */
+  public <T> T parseInto(T target, ByteBuffer data, int offset) {
+    return getStructClass(target.getClass(), true).parseInto(target, data, offset);
+  }
+
+  /**
+   * 从缓冲的当前位置解析结构体数据，解析后 position 前移结构体的长度
+   *
+   * @param type 类型
+   * @param data 数据缓冲
+   * @param <T>  对象类型
+   * @return 返回解析的对象
+   */
+  public <T> T parseObject(Class<T> type, ByteBuffer data) {
+    return getStructClass(type, true).parseObject(data);
+  }
+
+  /**
+   * 创建固定长度记录文件的读取器
+   *
+   * @param type 类型
+   * @param file 文件
+   * @param <T>  对象类型
+   * @return 返回读取器
+   * @throws IOException 打开文件失败
+   */
+  public <T> StructFileReader<T> newFileReader(Class<T> type, File file) throws IOException {
+    return new StructFileReader<>(getStructClass(type, true), file);
+  }
+
+  /**
+   * 创建输入流的结构体读取器
+   *
+   * @param type 类型
+   * @param in   输入流
+   * @param <T>  对象类型
+   * @return 返回读取器
+   */
+  public <T> StructReader<T> newReader(Class<T> type, InputStream in) {
+    return new StructReader<>(getStructClass(type, true), in);
+  }
+
+  /**
+   * 创建通道的结构体读取器
+   *
+   * @param type    类型
+   * @param channel 通道
+   * @param <T>     对象类型
+   * @return 返回读取器
+   */
+  public <T> StructReader<T> newReader(Class<T> type, ReadableByteChannel channel) {
+    return new StructReader<>(getStructClass(type, true), channel);
+  }
+
+  /**
+   * 创建结构体的视图，按需从数据中读取字段
+   *
+   * @param type     结构体类型
+   * @param viewType 视图接口
+   * @param <V>      视图类型
+   * @return 返回视图
+   */
+  public <V extends StructView<V>> V view(Class<?> type, Class<V> viewType) {
+    return StructViews.create(getPlannedStructClass(type), viewType, isUseGeneratedCodec());
+  }
+
+  /**
+   * 创建结构体的投影，只解码指定的字段，例如 projection(Person.class, "time", "createTime")
+   *
+   * @param type  结构体类型
+   * @param names 字段名
+   * @return 返回投影的结构体，可使用 parseObject、parseArray 等方法解码
+   */
+  public StructClass projection(Class<?> type, String... names) {
+    return getPlannedStructClass(type).projection(names);
+  }
+
+  /**
+   * 获取包含字段信息的结构体，编译期生成的编解码器不包含字段信息，需要再反射解析一次，
+   * 解析结果与结构体信息一起缓存
+   *
+   * @param type 类型
+   * @return 返回结构体
+   */
+  protected StructClass getPlannedStructClass(Class<?> type) {
+    StructClass structClass = getStructClass(type, true);
+    if (!structClass.getFields().isEmpty()) {
+      return structClass;
+    }
+    StructClassHolder holder = structClasses.get(type);
+    StructClass planned = holder.plannedStructClass;
+    if (planned != null) {
+      return planned;
+    }
+    synchronized (holder) {
+      if ((planned = holder.plannedStructClass) == null) {
+        holder.plannedStructClass = planned = getStructResolver().resolve(this, type);
+      }
+      return planned;
+    }
+  }
+
+  /**
+   * 查找编译期生成的编解码器
+   *
+   * @param type 结构体类型
+   * @return 返回编解码器，没有时返回 null
+   */
+  public GeneratedStructCodec findGeneratedCodec(Class<?> type) {
+    return isUseGeneratedCodec() ? generatedCodecs.get(type) : null;
+  }
+
+  /**
+   * 解析结构体，存在编译期生成的编解码器时不再反射解析字段
    *
    * @param type 类型
    * @return 返回解析的结构体信息
    */
   protected StructClass parseStructClass(Class<?> type) {
+    GeneratedStructCodec codec = findGeneratedCodec(type);
+    if (codec != null) {
+      StructClass structClass = new StructClass(type);
+      structClass.setInstantiator(t -> codec.newInstance());
+      structClass.setSize(codec.getSize());
+      structClass.setCodec(codec);
+      return structClass;
+    }
     return getStructResolver().resolve(this, type);
   }
 
+  /**
+   * 缓存的结构体信息
+   */
+  private static final class StructClassHolder {
+    volatile StructClass structClass;
+    /**
+     * 包含字段信息的结构体，仅在使用编译期生成的编解码器时解析
+     */
+    volatile StructClass plannedStructClass;
+    /**
+     * 注册时的解析耗时(纳秒)，未注册时为 -1
+     */
+    volatile long resolveNanos = -1;
+  }
+
 }
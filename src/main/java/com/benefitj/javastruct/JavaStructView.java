@@ -0,0 +1,19 @@
+package com.benefitj.javastruct;
+
+import java.lang.annotation.*;
+
+/**
+ * 结构体视图：标注在 {@link StructView} 接口上，编译期生成 "接口名$$StructView" 实现，
+ * getter 直接读取基本类型，不装箱、不经过动态代理
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface JavaStructView {
+
+  /**
+   * 视图对应的结构体类型
+   */
+  Class<?> value();
+
+}
@@ -0,0 +1,78 @@
+package com.benefitj.javastruct;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 对象池实例化器：优先从池中取出已释放的对象，池为空时由委托的实例化器创建；
+ * 对象使用完后调用 {@link #release(Object)} 放回池中，适用于请求范围内的对象复用。
+ * <p>
+ * 池中取出的对象保留上次的字段值，解码时会覆盖结构体中的字段
+ */
+public class PooledInstantiator implements Instantiator {
+
+  /**
+   * 委托的实例化器
+   */
+  private final Instantiator delegate;
+  /**
+   * 每个类型最多缓存的对象数量
+   */
+  private final int maxSize;
+  /**
+   * 类型对应的对象池
+   */
+  private final ClassValue<BlockingQueue<Object>> pools = new ClassValue<BlockingQueue<Object>>() {
+    @Override
+    protected BlockingQueue<Object> computeValue(Class<?> type) {
+      return new ArrayBlockingQueue<>(maxSize);
+    }
+  };
+
+  public PooledInstantiator() {
+    this(new ConstructorInstantiator(), 256);
+  }
+
+  public PooledInstantiator(Instantiator delegate, int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("对象池大小必须大于0: " + maxSize);
+    }
+    this.delegate = delegate;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public Object create(Class<?> type) {
+    Object o = pools.get(type).poll();
+    return o != null ? o : delegate.create(type);
+  }
+
+  /**
+   * 释放对象，放回池中
+   *
+   * @param o 对象
+   * @return 返回是否放入池中，池已满时返回 false
+   */
+  public boolean release(Object o) {
+    return o != null && pools.get(o.getClass()).offer(o);
+  }
+
+  /**
+   * 池中缓存的对象数量
+   *
+   * @param type 类型
+   * @return 返回数量
+   */
+  public int size(Class<?> type) {
+    return pools.get(type).size();
+  }
+
+  public Instantiator getDelegate() {
+    return delegate;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+}
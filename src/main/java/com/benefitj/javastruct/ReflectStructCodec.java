@@ -0,0 +1,48 @@
+package com.benefitj.javastruct;
+
+/**
+ * 基于转换器的编解码器，逐个字段读写对象的值
+ */
+public class ReflectStructCodec implements StructCodec {
+
+  /**
+   * 结构体
+   */
+  private final StructClass structClass;
+
+  public ReflectStructCodec(StructClass structClass) {
+    this.structClass = structClass;
+  }
+
+  public StructClass getStructClass() {
+    return structClass;
+  }
+
+  @Override
+  public void encode(Object o, byte[] dest, int offset) {
+    StructPlan plan = structClass.getPlan();
+    for (int i = 0, len = plan.length(); i < len; i++) {
+      StructField field = plan.field(i);
+      Object value = field.getAccessor().get(o);
+      byte[] bytes = field.getConverter().convert(field, value);
+      System.arraycopy(bytes, 0, dest, offset + plan.offset(i), bytes.length);
+    }
+  }
+
+  @Override
+  public void decode(Object o, byte[] data, int offset, int length) {
+    StructPlan plan = structClass.getPlan();
+    for (int i = 0, len = plan.length(); i < len; i++) {
+      if (plan.limit(i) > length) {
+        // 多余数据不做处理
+        break;
+      }
+      StructField sf = plan.field(i);
+      Object value = sf.getConverter().parse(sf, data, offset + plan.offset(i));
+      if (value != null) {
+        sf.getAccessor().set(o, value);
+      }
+    }
+  }
+
+}
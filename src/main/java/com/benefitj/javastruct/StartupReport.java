@@ -0,0 +1,93 @@
+package com.benefitj.javastruct;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动报告：每个结构体的解析耗时和预热耗时，可用于判断服务是否就绪
+ */
+public class StartupReport {
+
+  /**
+   * 解析耗时(纳秒)
+   */
+  private final Map<Class<?>, Long> resolveTimes;
+  /**
+   * 预热耗时(纳秒)
+   */
+  private final Map<Class<?>, Long> warmUpTimes;
+  /**
+   * 每个结构体预热的次数
+   */
+  private final int iterations;
+
+  public StartupReport(Map<Class<?>, Long> resolveTimes, Map<Class<?>, Long> warmUpTimes, int iterations) {
+    this.resolveTimes = Collections.unmodifiableMap(new LinkedHashMap<>(resolveTimes));
+    this.warmUpTimes = Collections.unmodifiableMap(new LinkedHashMap<>(warmUpTimes));
+    this.iterations = iterations;
+  }
+
+  public Map<Class<?>, Long> getResolveTimes() {
+    return resolveTimes;
+  }
+
+  public Map<Class<?>, Long> getWarmUpTimes() {
+    return warmUpTimes;
+  }
+
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * 结构体的数量
+   */
+  public int getCount() {
+    return warmUpTimes.size();
+  }
+
+  /**
+   * 解析的总耗时(纳秒)
+   */
+  public long getResolveNanos() {
+    return sum(resolveTimes);
+  }
+
+  /**
+   * 预热的总耗时(纳秒)
+   */
+  public long getWarmUpNanos() {
+    return sum(warmUpTimes);
+  }
+
+  private static long sum(Map<Class<?>, Long> times) {
+    long total = 0;
+    for (Long time : times.values()) {
+      total += time;
+    }
+    return total;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("结构体: ").append(getCount())
+        .append(", 解析耗时: ").append(millis(getResolveNanos())).append("ms")
+        .append(", 预热耗时: ").append(millis(getWarmUpNanos())).append("ms")
+        .append(", 预热次数: ").append(iterations);
+    for (Map.Entry<Class<?>, Long> entry : warmUpTimes.entrySet()) {
+      Long resolveTime = resolveTimes.get(entry.getKey());
+      sb.append("\n  ").append(entry.getKey().getName())
+          .append(" 解析: ").append(resolveTime != null ? millis(resolveTime) : "-").append("ms")
+          .append(", 预热: ").append(millis(entry.getValue())).append("ms");
+    }
+    return sb.toString();
+  }
+
+  private static String millis(long nanos) {
+    return String.format("%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+}
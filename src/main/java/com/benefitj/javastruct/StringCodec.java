@@ -0,0 +1,183 @@
+package com.benefitj.javastruct;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 字符串字段的编解码：US-ASCII、ISO-8859-1 和纯 ASCII 的 UTF-8 直接按字节处理，
+ * 其他编码使用线程内缓存的 CharsetEncoder 直接写入目标数组；
+ * 解码前按字节去掉首尾的空白和 NUL 填充
+ */
+public final class StringCodec {
+
+  /**
+   * 线程内缓存的编码器
+   */
+  private static final ThreadLocal<Map<Charset, CharsetEncoder>> ENCODERS = ThreadLocal.withInitial(IdentityHashMap::new);
+
+  private StringCodec() {
+  }
+
+  /**
+   * 是否兼容 ASCII：小于 0x80 的字节只表示对应的 ASCII 字符，可以按字节去掉首尾的空白
+   *
+   * @param cs 编码
+   * @return 返回是否兼容
+   */
+  public static boolean isAsciiCompatible(Charset cs) {
+    if (cs == StandardCharsets.UTF_8 || cs == StandardCharsets.US_ASCII || cs == StandardCharsets.ISO_8859_1) {
+      return true;
+    }
+    String name = cs.name();
+    return "GBK".equals(name) || "GB2312".equals(name) || "GB18030".equals(name);
+  }
+
+  /**
+   * 编码字符串到目标数组，超出长度的部分截断(不截断多字节字符)，不足的部分补0
+   *
+   * @param str  字符串，为 null 时全部补0
+   * @param cs   编码
+   * @param dst  目标数组
+   * @param off  开始的位置
+   * @param size 字段长度
+   * @return 返回编码后的有效字节数
+   */
+  public static int encode(String str, Charset cs, byte[] dst, int off, int size) {
+    int written = 0;
+    if (str != null) {
+      written = encodeDirect(str, cs, dst, off, size);
+      if (written < 0) {
+        written = encodeWithEncoder(str, cs, dst, off, size);
+      }
+    }
+    if (written < size) {
+      Arrays.fill(dst, off + written, off + size, (byte) 0);
+    }
+    return written;
+  }
+
+  /**
+   * 计算字符串编码后的字节数，US-ASCII、ISO-8859-1 和 UTF-8 不需要编码
+   *
+   * @param str 字符串，为 null 时返回 0
+   * @param cs  编码
+   * @return 返回编码后的字节数
+   */
+  public static int encodedLength(String str, Charset cs) {
+    if (str == null) {
+      return 0;
+    }
+    if (cs == StandardCharsets.US_ASCII || cs == StandardCharsets.ISO_8859_1) {
+      return str.length();
+    }
+    if (cs != StandardCharsets.UTF_8) {
+      return str.getBytes(cs).length;
+    }
+    int length = 0;
+    for (int i = 0, len = str.length(); i < len; i++) {
+      char c = str.charAt(i);
+      if (c < 0x80) {
+        length += 1;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(str.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        // 不完整的代理对替换为 '?'
+        length += 1;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * 按字节直接编码
+   *
+   * @return 返回写入的字节数，不能直接编码时返回 -1
+   */
+  static int encodeDirect(String str, Charset cs, byte[] dst, int off, int size) {
+    int limit;
+    if (cs == StandardCharsets.ISO_8859_1) {
+      limit = 0xFF;
+    } else if (cs == StandardCharsets.US_ASCII || cs == StandardCharsets.UTF_8) {
+      limit = 0x7F;
+    } else {
+      return -1;
+    }
+    int len = Math.min(str.length(), size);
+    for (int i = 0; i < len; i++) {
+      char c = str.charAt(i);
+      if (c > limit) {
+        if (cs == StandardCharsets.UTF_8) {
+          // 非 ASCII 字符，交给编码器处理
+          return -1;
+        }
+        c = '?';
+      }
+      dst[off + i] = (byte) c;
+    }
+    return len;
+  }
+
+  /**
+   * 使用线程内缓存的编码器直接写入目标数组
+   */
+  static int encodeWithEncoder(String str, Charset cs, byte[] dst, int off, int size) {
+    CharsetEncoder encoder = ENCODERS.get().computeIfAbsent(cs, c -> c.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    ByteBuffer out = ByteBuffer.wrap(dst, off, size);
+    encoder.reset();
+    // 空间不足时停在完整字符的边界
+    encoder.encode(CharBuffer.wrap(str), out, true);
+    encoder.flush(out);
+    return out.position() - off;
+  }
+
+  /**
+   * 解码字符串，去掉首尾的空白和 NUL 填充(与 String.trim() 相同)
+   *
+   * @param src  数据
+   * @param off  开始的位置
+   * @param size 字段长度
+   * @param cs   编码
+   * @return 返回字符串
+   */
+  public static String decode(byte[] src, int off, int size, Charset cs) {
+    if (!isAsciiCompatible(cs)) {
+      return new String(src, off, size, cs).trim();
+    }
+    int start = off;
+    int end = off + size;
+    while (start < end && (src[start] & 0xFF) <= ' ') {
+      start++;
+    }
+    while (end > start && (src[end - 1] & 0xFF) <= ' ') {
+      end--;
+    }
+    if (cs == StandardCharsets.ISO_8859_1) {
+      return new String(src, start, end - start, cs);
+    }
+    char[] chars = new char[end - start];
+    for (int i = start; i < end; i++) {
+      byte b = src[i];
+      if (b < 0) {
+        // 非 ASCII 字符
+        return new String(src, start, end - start, cs);
+      }
+      chars[i - start] = (char) b;
+    }
+    return new String(chars);
+  }
+
+}
@@ -1,7 +1,13 @@
 package com.benefitj.javastruct;
 
-import java.util.LinkedList;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 结构类信息
@@ -15,15 +21,27 @@ public class StructClass {
   /**
    * 字段
    */
-  private final List<StructField> fields = new LinkedList<>();
+  private final List<StructField> fields = new ArrayList<>();
   /**
    * 实例化器
    */
   private Instantiator instantiator;
   /**
-   * 结构体长度
+   * 结构体长度，变长结构体为变长字段都为空时的长度
    */
   private int size;
+  /**
+   * 是否为固定长度的结构体
+   */
+  private boolean fixedSize = true;
+  /**
+   * 编解码器
+   */
+  private StructCodec codec;
+  /**
+   * 执行计划
+   */
+  private StructPlan plan;
 
   public StructClass(Class<?> type) {
     this.type = type;
@@ -53,6 +71,140 @@ public class StructClass {
     this.size = size;
   }
 
+  /**
+   * 是否为固定长度的结构体
+   */
+  public boolean isFixedSize() {
+    return fixedSize;
+  }
+
+  public void setFixedSize(boolean fixedSize) {
+    this.fixedSize = fixedSize;
+  }
+
+  /**
+   * 对象编码后的长度，不编码对象；固定长度的结构体直接返回结构体的长度
+   *
+   * @param o 对象
+   * @return 返回编码后的长度
+   */
+  public int sizeOf(Object o) {
+    return isFixedSize() ? getSize() : getCodec().sizeOf(o);
+  }
+
+  /**
+   * 数据中结构体的长度，变长结构体只读取长度字段和长度前缀；固定长度的结构体直接返回结构体的长度
+   *
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param length 可用的数据长度
+   * @return 返回结构体的长度
+   * @throws IllegalArgumentException 变长结构体的数据不完整
+   */
+  public int sizeOf(byte[] data, int offset, int length) {
+    if (isFixedSize()) {
+      return getSize();
+    }
+    return checkSize(getCodec().sizeOf(data, offset, length), length);
+  }
+
+  /**
+   * 按绝对位置读取缓冲中结构体的长度，不改变缓冲的 position
+   *
+   * @param data     数据缓冲
+   * @param position 开始的位置
+   * @return 返回结构体的长度
+   * @throws IllegalArgumentException 变长结构体的数据不完整
+   */
+  public int sizeOf(ByteBuffer data, int position) {
+    if (isFixedSize()) {
+      return getSize();
+    }
+    int length = data.limit() - position;
+    return checkSize(getCodec().sizeOf(data, position, length), length);
+  }
+
+  private static int checkSize(int size, int length) {
+    if (size < 0 || size > length) {
+      throw new IllegalArgumentException("数据长度不够，不完整的变长结构体，实际长度" + length);
+    }
+    return size;
+  }
+
+  /**
+   * 检查是否为固定长度的结构体
+   *
+   * @param operation 操作
+   */
+  void requireFixedSize(String operation) {
+    if (!isFixedSize()) {
+      throw new IllegalStateException("变长结构体[" + getType().getName() + "]不支持" + operation);
+    }
+  }
+
+  /**
+   * 执行计划，未设置时根据字段创建
+   */
+  public StructPlan getPlan() {
+    StructPlan p = this.plan;
+    if (p == null) {
+      this.plan = (p = new StructPlan(getFields()));
+    }
+    return p;
+  }
+
+  public void setPlan(StructPlan plan) {
+    this.plan = plan;
+  }
+
+  /**
+   * 编解码器，未设置时使用反射的编解码器
+   */
+  public StructCodec getCodec() {
+    StructCodec c = this.codec;
+    if (c == null) {
+      this.codec = (c = new ReflectStructCodec(this));
+    }
+    return c;
+  }
+
+  public void setCodec(StructCodec codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * 创建投影：只包含指定字段的结构体，解码时按偏移跳过其他字段，
+   * 不执行其转换器，也不创建其数组和字符串；结构体长度不变。
+   * 投影用于解码，编码时只写入投影的字段
+   *
+   * @param names 字段名
+   * @return 返回投影的结构体
+   */
+  public StructClass projection(String... names) {
+    requireFixedSize("投影");
+    StructPlan plan = getPlan();
+    boolean[] selected = new boolean[plan.length()];
+    for (String name : names) {
+      int index = plan.indexOf(name);
+      if (index < 0) {
+        throw new IllegalArgumentException("结构体[" + getType().getName() + "]中不存在字段: " + name);
+      }
+      selected[index] = true;
+    }
+    StructClass projection = new StructClass(getType());
+    for (int i = 0; i < selected.length; i++) {
+      if (selected[i]) {
+        projection.getFields().add(plan.field(i));
+      }
+    }
+    StructPlan subPlan = new StructPlan(projection.getFields());
+    projection.setInstantiator(getInstantiator());
+    projection.setSize(getSize());
+    projection.setPlan(subPlan);
+    projection.setCodec(new CompiledStructCodec(subPlan));
+    return projection;
+  }
+
   /**
    * 转换对象
    *
@@ -60,17 +212,89 @@ public class StructClass {
    * @return 返回转换后的字节数组
    */
   public byte[] toBytes(Object o) {
-    byte[] data = new byte[getSize()];
-    int index = 0;
-    for (StructField field : getFields()) {
-      Object value = StructUtils.getFieldValue(field.getField(), o);
-      byte[] bytes = field.getConverter().convert(field, value);
-      System.arraycopy(bytes, 0, data, index, bytes.length);
-      index += field.size();
-    }
+    byte[] data = new byte[sizeOf(o)];
+    getCodec().encode(o, data, 0);
     return data;
   }
 
+  /**
+   * 转换对象并写入目标数组，结构体的填充部分补0
+   *
+   * @param o      对象
+   * @param dest   目标数组
+   * @param offset 开始的位置
+   * @return 返回写入的长度
+   */
+  public int toBytes(Object o, byte[] dest, int offset) {
+    int size = sizeOf(o);
+    if (offset < 0 || dest.length - offset < size) {
+      throw new IllegalArgumentException(
+          "数据长度不够，要求长度" + size + "，实际长度" + (dest.length - offset));
+    }
+    int dataSize = getPlan().getSize();
+    if (isFixedSize() && dataSize < size) {
+      Arrays.fill(dest, offset + dataSize, offset + size, (byte) 0);
+    }
+    getCodec().encode(o, dest, offset);
+    return size;
+  }
+
+  /**
+   * 批量转换对象，连续写入目标数组
+   *
+   * @param items  对象，类型都为当前结构体
+   * @param dest   目标数组
+   * @param offset 开始的位置
+   * @return 返回写入的长度
+   */
+  public int toBytes(Collection<?> items, byte[] dest, int offset) {
+    if (!isFixedSize()) {
+      int start = offset;
+      for (Object o : items) {
+        offset += toBytes(o, dest, offset);
+      }
+      return offset - start;
+    }
+    int size = getSize();
+    int total = size * items.size();
+    if (offset < 0 || dest.length - offset < total) {
+      throw new IllegalArgumentException(
+          "数据长度不够，要求长度" + total + "，实际长度" + (dest.length - offset));
+    }
+    StructCodec codec = getCodec();
+    int dataSize = getPlan().getSize();
+    for (Object o : items) {
+      if (dataSize < size) {
+        Arrays.fill(dest, offset + dataSize, offset + size, (byte) 0);
+      }
+      codec.encode(o, dest, offset);
+      offset += size;
+    }
+    return total;
+  }
+
+  /**
+   * 转换对象并写入缓冲的当前位置，写入后 position 前移结构体的长度
+   *
+   * @param o    对象
+   * @param dest 目标缓冲
+   * @return 返回写入的长度
+   */
+  public int encode(Object o, ByteBuffer dest) {
+    int size = sizeOf(o);
+    if (dest.remaining() < size) {
+      throw new BufferOverflowException();
+    }
+    int position = dest.position();
+    if (dest.hasArray()) {
+      toBytes(o, dest.array(), dest.arrayOffset() + position);
+    } else {
+      getCodec().encode(o, dest, position, size);
+    }
+    dest.position(position + size);
+    return size;
+  }
+
   /**
    * 解析结构体数据
    *
@@ -80,26 +304,205 @@ public class StructClass {
    * @return 返回解析的对象
    */
   public <T> T parseObject(byte[] data, int start) {
-    /*if (data.length - start < getSize()) {
-      throw new IllegalArgumentException(
-          "数据长度不够，要求长度" + getSize() + "，实际长度" + (data.length - start));
-    }*/
+    return parseObject(data, start, data.length - start);
+  }
 
-    // 创建对象
-    Object o = getInstantiator().create(getType());
-    int index = 0;
-    for (StructField sf : getFields()) {
-      if ((sf.size() + index) > (data.length - start)) {
-        // 多余数据不做处理
-        break;
+  /**
+   * 批量解析连续的结构体数据
+   *
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param count  结构体数量
+   * @param <T>    对象类型
+   * @return 返回解析的对象
+   */
+  public <T> List<T> parseArray(byte[] data, int offset, int count) {
+    List<T> list = new ArrayList<>(count);
+    parseInto(data, offset, count, list);
+    return list;
+  }
+
+  /**
+   * 批量解析连续的结构体数据，并添加到集合中
+   *
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param count  结构体数量
+   * @param dest   目标集合
+   * @param <T>    对象类型
+   * @return 返回解析的数量
+   */
+  public <T> int parseInto(byte[] data, int offset, int count, List<? super T> dest) {
+    if (!isFixedSize()) {
+      if (offset < 0 || count < 0 || offset > data.length) {
+        throw new IllegalArgumentException("offset: " + offset + ", count: " + count);
       }
-      Object value = sf.getConverter().parse(sf, data, index);
-      if (value != null) {
-        StructUtils.setFieldValue(sf.getField(), o, value);
+      for (int i = 0; i < count; i++) {
+        int size = sizeOf(data, offset, data.length - offset);
+        dest.add(parseObject(data, offset, size));
+        offset += size;
       }
-      index += sf.size();
+      return count;
+    }
+    int size = getSize();
+    if (offset < 0 || count < 0 || (long) size * count > data.length - offset) {
+      throw new IllegalArgumentException(
+          "数据长度不够，要求长度" + ((long) size * count) + "，实际长度" + (data.length - offset));
+    }
+    Instantiator instantiator = getInstantiator();
+    StructCodec codec = getCodec();
+    Class<?> type = getType();
+    for (int i = 0; i < count; i++, offset += size) {
+      Object o = instantiator.create(type);
+      codec.decode(o, data, offset, size);
+      dest.add((T) o);
+    }
+    return count;
+  }
+
+  /**
+   * 并行解析缓冲中从 position 到 limit 之间的完整记录，按记录边界分割到 ForkJoinPool 中执行，
+   * 每个任务写入结果数组中各自的区间；解析后 position 前移解析的长度
+   *
+   * @param data 数据缓冲
+   * @param pool 线程池
+   * @param <T>  对象类型
+   * @return 返回解析的对象
+   */
+  public <T> List<T> parseAllParallel(ByteBuffer data, ForkJoinPool pool) {
+    requireFixedSize("并行解析");
+    int size = getSize();
+    int position = data.position();
+    int count = data.remaining() / size;
+    Object[] result = new Object[count];
+    if (count > 0) {
+      pool.invoke(new ParallelDecodeTask(this, data, position, result, 0, count));
+    }
+    data.position(position + count * size);
+    return (List<T>) Arrays.asList(result);
+  }
+
+  /**
+   * 解析数组中一段区域的结构体数据，不拷贝数据
+   *
+   * @param data   数据
+   * @param start  开始的位置
+   * @param length 区域的长度
+   * @param <T>    对象类型
+   * @return 返回解析的对象
+   */
+  public <T> T parseObject(byte[] data, int start, int length) {
+    if (start < 0 || length < 0 || start + length > data.length) {
+      throw new IndexOutOfBoundsException(
+          "start: " + start + ", length: " + length + ", data.length: " + data.length);
     }
+    Object o = getInstantiator().create(getType());
+    getCodec().decode(o, data, start, length);
+    return (T) o;
+  }
+
+  /**
+   * 解析结构体数据到已有的对象，数组字段的长度一致时直接填充原数组
+   *
+   * @param target 目标对象
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param <T>    对象类型
+   * @return 返回目标对象
+   */
+  public <T> T parseInto(T target, byte[] data, int offset) {
+    getCodec().decodeInto(target, data, offset, data.length - offset);
+    return target;
+  }
+
+  /**
+   * 按绝对位置从缓冲中解析结构体数据到已有的对象，不改变缓冲的 position
+   *
+   * @param target 目标对象
+   * @param data   数据缓冲
+   * @param offset 开始的位置
+   * @param <T>    对象类型
+   * @return 返回目标对象
+   */
+  public <T> T parseInto(T target, ByteBuffer data, int offset) {
+    int length = isFixedSize() ? Math.min(getSize(), data.limit() - offset) : sizeOf(data, offset);
+    getCodec().decodeInto(target, data, offset, length);
+    return target;
+  }
+
+  /**
+   * 从缓冲的当前位置解析结构体数据，解析后 position 前移结构体的长度(不超过 limit)
+   *
+   * @param data 数据缓冲
+   * @param <T>  对象类型
+   * @return 返回解析的对象
+   */
+  public <T> T parseObject(ByteBuffer data) {
+    int position = data.position();
+    int length = isFixedSize() ? Math.min(getSize(), data.limit() - position) : sizeOf(data, position);
+    Object o = getInstantiator().create(getType());
+    getCodec().decode(o, data, position, length);
+    data.position(position + length);
     return (T) o;
   }
 
+  /**
+   * 按绝对位置从缓冲中解析结构体数据，不改变缓冲的 position；
+   * 支持堆缓冲和直接缓冲，缓冲的字节顺序不影响解析结果
+   *
+   * @param data     数据缓冲
+   * @param position 开始的位置
+   * @param <T>      对象类型
+   * @return 返回解析的对象
+   */
+  public <T> T parseObject(ByteBuffer data, int position) {
+    int length = isFixedSize() ? Math.min(getSize(), data.limit() - position) : sizeOf(data, position);
+    Object o = getInstantiator().create(getType());
+    getCodec().decode(o, data, position, length);
+    return (T) o;
+  }
+
+  /**
+   * 并行解析的任务
+   */
+  static final class ParallelDecodeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 单个任务最少解析的数量
+     */
+    static final int THRESHOLD = 256;
+
+    final StructClass structClass;
+    final ByteBuffer data;
+    final int base;
+    final Object[] result;
+    final int from;
+    final int to;
+
+    ParallelDecodeTask(StructClass structClass, ByteBuffer data, int base, Object[] result, int from, int to) {
+      this.structClass = structClass;
+      this.data = data;
+      this.base = base;
+      this.result = result;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= THRESHOLD) {
+        int size = structClass.getSize();
+        for (int i = from; i < to; i++) {
+          result[i] = structClass.parseObject(data, base + i * size);
+        }
+      } else {
+        int mid = (from + to) >>> 1;
+        invokeAll(new ParallelDecodeTask(structClass, data, base, result, from, mid)
+            , new ParallelDecodeTask(structClass, data, base, result, mid, to));
+      }
+    }
+  }
+
 }
@@ -0,0 +1,138 @@
+package com.benefitj.javastruct;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 结构体编解码器
+ */
+public interface StructCodec {
+
+  /**
+   * 编码对象
+   *
+   * @param o      对象
+   * @param dest   目标数组
+   * @param offset 目标数组开始的位置
+   */
+  void encode(Object o, byte[] dest, int offset);
+
+  /**
+   * 编码对象到缓冲，按绝对位置写入，不改变缓冲的 position，结构体的填充部分补0；
+   * 默认先编码到线程缓存的数组再整体拷贝，堆缓冲可以直接使用 {@link #encode(Object, byte[], int)}
+   *
+   * @param o      对象
+   * @param dest   目标缓冲
+   * @param offset 目标缓冲开始的位置
+   * @param size   结构体长度
+   */
+  default void encode(Object o, ByteBuffer dest, int offset, int size) {
+    byte[] buf = StructCodecs.scratch(size);
+    Arrays.fill(buf, 0, size, (byte) 0);
+    encode(o, buf, 0);
+    ByteBuffer dup = dest.duplicate();
+    dup.position(offset);
+    dup.put(buf, 0, size);
+  }
+
+  /**
+   * 对象编码后的长度，不编码对象；固定长度的结构体返回 -1
+   *
+   * @param o 对象
+   * @return 返回编码后的长度
+   */
+  default int sizeOf(Object o) {
+    return -1;
+  }
+
+  /**
+   * 数据中结构体的长度，只读取长度字段和长度前缀；固定长度的结构体或数据不足以确定长度时返回 -1
+   *
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param length 可用的数据长度
+   * @return 返回结构体的长度
+   */
+  default int sizeOf(byte[] data, int offset, int length) {
+    return -1;
+  }
+
+  /**
+   * 按绝对位置读取缓冲中结构体的长度，不改变缓冲的 position
+   *
+   * @param data   数据缓冲
+   * @param offset 开始的位置
+   * @param length 可用的数据长度
+   * @return 返回结构体的长度
+   */
+  default int sizeOf(ByteBuffer data, int offset, int length) {
+    if (data.hasArray()) {
+      return sizeOf(data.array(), data.arrayOffset() + offset, length);
+    }
+    return -1;
+  }
+
+  /**
+   * 解码数据到对象
+   *
+   * @param o      对象
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param length 可用的数据长度
+   */
+  void decode(Object o, byte[] data, int offset, int length);
+
+  /**
+   * 按绝对位置从缓冲中解码数据到对象，不改变缓冲的 position；
+   * 堆缓冲直接读取底层数组，直接缓冲默认先拷贝到线程缓存的数组
+   *
+   * @param o      对象
+   * @param data   数据缓冲
+   * @param offset 开始的位置
+   * @param length 可用的数据长度
+   */
+  default void decode(Object o, ByteBuffer data, int offset, int length) {
+    if (data.hasArray()) {
+      decode(o, data.array(), data.arrayOffset() + offset, length);
+      return;
+    }
+    byte[] buf = StructCodecs.scratch(length);
+    ByteBuffer dup = data.duplicate();
+    dup.position(offset);
+    dup.get(buf, 0, length);
+    decode(o, buf, 0, length);
+  }
+
+  /**
+   * 解码数据到已有的对象，数组字段的长度一致时直接填充原数组；默认与 decode 相同
+   *
+   * @param o      对象
+   * @param data   数据
+   * @param offset 开始的位置
+   * @param length 可用的数据长度
+   */
+  default void decodeInto(Object o, byte[] data, int offset, int length) {
+    decode(o, data, offset, length);
+  }
+
+  /**
+   * 按绝对位置从缓冲中解码数据到已有的对象，不改变缓冲的 position
+   *
+   * @param o      对象
+   * @param data   数据缓冲
+   * @param offset 开始的位置
+   * @param length 可用的数据长度
+   */
+  default void decodeInto(Object o, ByteBuffer data, int offset, int length) {
+    if (data.hasArray()) {
+      decodeInto(o, data.array(), data.arrayOffset() + offset, length);
+      return;
+    }
+    byte[] buf = StructCodecs.scratch(length);
+    ByteBuffer dup = data.duplicate();
+    dup.position(offset);
+    dup.get(buf, 0, length);
+    decodeInto(o, buf, 0, length);
+  }
+
+}
@@ -0,0 +1,31 @@
+package com.benefitj.javastruct;
+
+/**
+ * 编解码的工具
+ */
+final class StructCodecs {
+
+  /**
+   * 线程缓存的临时数组
+   */
+  private static final ThreadLocal<byte[][]> SCRATCH = ThreadLocal.withInitial(() -> new byte[1][0]);
+
+  private StructCodecs() {
+  }
+
+  /**
+   * 获取当前线程的临时数组，长度不小于 size，内容不做清理
+   *
+   * @param size 需要的长度
+   * @return 返回数组
+   */
+  static byte[] scratch(int size) {
+    byte[][] holder = SCRATCH.get();
+    byte[] buf = holder[0];
+    if (buf.length < size) {
+      holder[0] = buf = new byte[size];
+    }
+    return buf;
+  }
+
+}
@@ -4,6 +4,7 @@ import com.benefitj.javastruct.convert.Converter;
 
 import java.lang.reflect.Field;
 import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 
 /**
  * 类字段
@@ -30,6 +31,38 @@ public class StructField {
    * 字符串的编码
    */
   private String charset = "UTF-8";
+  /**
+   * 解析后的字符串编码
+   */
+  private Charset charsetObject;
+  /**
+   * 字段访问器
+   */
+  private FieldAccessor accessor;
+  /**
+   * 嵌套的结构体，字段或数组元素的类型被 {@link JavaStructClass} 注解时不为 null
+   */
+  private StructClass structClass;
+  /**
+   * 变长字段的长度字段
+   */
+  private StructField lengthField;
+  /**
+   * 位域在单元中的起始位
+   */
+  private int bitOffset;
+  /**
+   * 字段在结构体中的偏移
+   */
+  private int offset;
+  /**
+   * 缓存的字段字节长度，-1表示未计算
+   */
+  private int size = -1;
+  /**
+   * 缓存的字节顺序
+   */
+  private ByteOrder byteOrder;
 
   public StructField(Field field) {
     this.field = field;
@@ -62,6 +95,7 @@ public class StructField {
 
   public void setPrimitiveType(PrimitiveType primitiveType) {
     this.primitiveType = primitiveType;
+    this.size = -1;
   }
 
   public JavaStructField getAnnotation() {
@@ -70,6 +104,23 @@ public class StructField {
 
   public void setAnnotation(JavaStructField annotation) {
     this.annotation = annotation;
+    this.size = -1;
+    this.byteOrder = null;
+  }
+
+  /**
+   * 字段访问器，未设置时创建
+   */
+  public FieldAccessor getAccessor() {
+    FieldAccessor fa = this.accessor;
+    if (fa == null) {
+      this.accessor = (fa = FieldAccessor.newAccessor(getField()));
+    }
+    return fa;
+  }
+
+  public void setAccessor(FieldAccessor accessor) {
+    this.accessor = accessor;
   }
 
   public Converter getConverter() {
@@ -86,6 +137,106 @@ public class StructField {
 
   public void setCharset(String charset) {
     this.charset = charset;
+    this.charsetObject = null;
+  }
+
+  /**
+   * 解析后的字符串编码
+   */
+  public Charset getCharsetObject() {
+    Charset cs = this.charsetObject;
+    if (cs == null) {
+      this.charsetObject = (cs = Charset.forName(getCharset()));
+    }
+    return cs;
+  }
+
+  /**
+   * 嵌套的结构体
+   */
+  public StructClass getStructClass() {
+    return structClass;
+  }
+
+  public void setStructClass(StructClass structClass) {
+    this.structClass = structClass;
+    this.size = -1;
+  }
+
+  /**
+   * 是否为嵌套的结构体
+   */
+  public boolean isNested() {
+    return structClass != null;
+  }
+
+  /**
+   * 是否为变长字段：长度来自长度字段或长度前缀
+   */
+  public boolean isVariable() {
+    JavaStructField jsf = getAnnotation();
+    return jsf.lengthPrefix() > 0 || !jsf.lengthField().isEmpty();
+  }
+
+  /**
+   * 变长字段的长度前缀所占的字节数
+   */
+  public int getLengthPrefix() {
+    return getAnnotation().lengthPrefix();
+  }
+
+  /**
+   * 变长字段的长度字段
+   */
+  public StructField getLengthField() {
+    return lengthField;
+  }
+
+  public void setLengthField(StructField lengthField) {
+    this.lengthField = lengthField;
+  }
+
+  /**
+   * 是否为无符号整数
+   */
+  public boolean isUnsigned() {
+    return getAnnotation().unsigned();
+  }
+
+  /**
+   * 是否为位域
+   */
+  public boolean isBitField() {
+    return getAnnotation().bits() > 0;
+  }
+
+  /**
+   * 位域的位数
+   */
+  public int getBits() {
+    return getAnnotation().bits();
+  }
+
+  /**
+   * 位域在单元中的起始位，0 为单元数值的最低位
+   */
+  public int getBitOffset() {
+    return bitOffset;
+  }
+
+  public void setBitOffset(int bitOffset) {
+    this.bitOffset = bitOffset;
+  }
+
+  /**
+   * 字段在结构体中的偏移
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  public void setOffset(int offset) {
+    this.offset = offset;
   }
 
   public Class<?> getType() {
@@ -97,25 +248,30 @@ public class StructField {
    */
   public boolean isArray() {
     PrimitiveType pt = getPrimitiveType();
-    return pt != null && pt.isArray();
+    return pt != null ? pt.isArray() : structClass != null && getType().isArray();
   }
 
   /**
    * 字段单个元素的大小
    */
   public int getFieldSize() {
-    return getAnnotation().size();
+    int s = getAnnotation().size();
+    return s <= 0 && structClass != null ? structClass.getSize() : s;
   }
 
   /**
    * 是否小端字节顺序
    */
   public boolean isLittleEndian() {
-    return getAnnotation().byteOrder() == FieldByteOrder.LITTLE_ENDIAN;
+    return getByteOrder() == ByteOrder.LITTLE_ENDIAN;
   }
 
   public ByteOrder getByteOrder() {
-    return getAnnotation().byteOrder().getOrder();
+    ByteOrder order = this.byteOrder;
+    if (order == null) {
+      this.byteOrder = (order = getAnnotation().byteOrder().getOrder());
+    }
+    return order;
   }
 
   /**
@@ -126,12 +282,19 @@ public class StructField {
   }
 
   /**
-   * 字段的字节长度
+   * 字段的字节长度，变长字段为长度前缀的长度
    */
   public int size() {
-    PrimitiveType pt = getPrimitiveType();
-    JavaStructField sf = getAnnotation();
-    return pt != null && pt.isArray() ? sf.arrayLength() * sf.size() : sf.size();
+    int s = this.size;
+    if (s < 0) {
+      if (isVariable()) {
+        s = getLengthPrefix();
+      } else {
+        s = isArray() ? getArrayLength() * getFieldSize() : getFieldSize();
+      }
+      this.size = s;
+    }
+    return s;
   }
 
 }
@@ -0,0 +1,170 @@
+package com.benefitj.javastruct;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 固定长度记录文件的读取：文件由连续的结构体组成，按窗口映射到内存后直接解码，
+ * 记录数据不会拷贝到堆中；超过 2GB 的文件按多个窗口映射，窗口的边界与记录对齐。
+ * <p>
+ * 非线程安全，多个线程读取同一个文件时请各自创建读取器
+ *
+ * @param <T> 结构体类型
+ */
+public class StructFileReader<T> implements Iterable<T>, Closeable {
+
+  /**
+   * 默认的窗口大小：64MB
+   */
+  public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+  private final StructClass structClass;
+  private final FileChannel channel;
+  /**
+   * 记录长度
+   */
+  private final int recordSize;
+  /**
+   * 记录数量
+   */
+  private final long count;
+  /**
+   * 每个窗口的记录数
+   */
+  private final int windowRecords;
+  /**
+   * 当前映射的窗口
+   */
+  private MappedByteBuffer window;
+  /**
+   * 当前窗口的编号
+   */
+  private long windowIndex = -1;
+
+  public StructFileReader(StructClass structClass, File file) throws IOException {
+    this(structClass, file, DEFAULT_WINDOW_SIZE);
+  }
+
+  public StructFileReader(StructClass structClass, File file, int windowSize) throws IOException {
+    structClass.requireFixedSize("文件读取");
+    this.structClass = structClass;
+    this.recordSize = structClass.getSize();
+    if (recordSize <= 0) {
+      throw new IllegalArgumentException("结构体长度错误: " + recordSize);
+    }
+    if (windowSize < recordSize) {
+      throw new IllegalArgumentException("窗口大小不能小于结构体长度: " + windowSize);
+    }
+    this.windowRecords = windowSize / recordSize;
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    this.count = channel.size() / recordSize;
+  }
+
+  public StructClass getStructClass() {
+    return structClass;
+  }
+
+  /**
+   * 记录数量，文件末尾不完整的记录不计算在内
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * 读取记录
+   *
+   * @param index 记录的下标
+   * @return 返回解析的对象
+   */
+  public T get(long index) {
+    return get(index, null);
+  }
+
+  /**
+   * 读取记录到已有的对象中
+   *
+   * @param index  记录的下标
+   * @param target 目标对象，为 null 时创建新对象
+   * @return 返回解析的对象
+   */
+  public T get(long index, T target) {
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("index: " + index + ", count: " + count);
+    }
+    MappedByteBuffer buf = window(index / windowRecords);
+    int position = (int) (index % windowRecords) * recordSize;
+    if (target != null) {
+      return structClass.parseInto(target, buf, position);
+    }
+    return structClass.parseObject(buf, position);
+  }
+
+  /**
+   * 映射窗口
+   *
+   * @param index 窗口的编号
+   * @return 返回映射的缓冲
+   */
+  protected MappedByteBuffer window(long index) {
+    if (windowIndex != index) {
+      long position = index * windowRecords * recordSize;
+      long size = Math.min((long) windowRecords, count - index * windowRecords) * recordSize;
+      try {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      windowIndex = index;
+    }
+    return window;
+  }
+
+  /**
+   * 顺序读取，每次返回新的对象
+   */
+  @Override
+  public Iterator<T> iterator() {
+    return iterator(null);
+  }
+
+  /**
+   * 顺序读取
+   *
+   * @param reuse 复用的对象，不为 null 时每次都解析到此对象并返回
+   * @return 返回迭代器
+   */
+  public Iterator<T> iterator(T reuse) {
+    return new Iterator<T>() {
+      long index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < count;
+      }
+
+      @Override
+      public T next() {
+        if (index >= count) {
+          throw new NoSuchElementException();
+        }
+        return get(index++, reuse);
+      }
+    };
+  }
+
+  @Override
+  public void close() throws IOException {
+    window = null;
+    windowIndex = -1;
+    channel.close();
+  }
+
+}
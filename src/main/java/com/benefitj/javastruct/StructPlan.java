@@ -0,0 +1,94 @@
+package com.benefitj.javastruct;
+
+import java.util.List;
+
+/**
+ * 结构体的执行计划：解析时计算一次，字段的偏移、长度和结束位置保存为数组，
+ * 编解码时按下标顺序执行
+ */
+public final class StructPlan {
+
+  /**
+   * 字段
+   */
+  private final StructField[] fields;
+  /**
+   * 字段在结构体中的偏移
+   */
+  private final int[] offsets;
+  /**
+   * 字段的字节长度
+   */
+  private final int[] sizes;
+  /**
+   * 字段的结束位置(偏移 + 长度)
+   */
+  private final int[] limits;
+  /**
+   * 字段占用的总长度
+   */
+  private final int size;
+
+  public StructPlan(List<StructField> fields) {
+    int count = fields.size();
+    this.fields = fields.toArray(new StructField[0]);
+    this.offsets = new int[count];
+    this.sizes = new int[count];
+    this.limits = new int[count];
+    int end = 0;
+    for (int i = 0; i < count; i++) {
+      StructField field = this.fields[i];
+      offsets[i] = field.getOffset();
+      sizes[i] = field.size();
+      limits[i] = offsets[i] + sizes[i];
+      end = Math.max(end, limits[i]);
+    }
+    this.size = end;
+  }
+
+  /**
+   * 字段数量
+   */
+  public int length() {
+    return fields.length;
+  }
+
+  public StructField field(int index) {
+    return fields[index];
+  }
+
+  public int offset(int index) {
+    return offsets[index];
+  }
+
+  public int size(int index) {
+    return sizes[index];
+  }
+
+  public int limit(int index) {
+    return limits[index];
+  }
+
+  /**
+   * 字段占用的总长度
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * 查找字段的下标
+   *
+   * @param name 字段名
+   * @return 返回下标，不存在返回 -1
+   */
+  public int indexOf(String name) {
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i].getField().getName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+}
@@ -0,0 +1,238 @@
+package com.benefitj.javastruct;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流式读取固定长度的结构体：内部维护一个可压缩的缓冲，每次尽量读满缓冲，
+ * 缓冲中的完整记录直接解码，剩余的不完整数据移动到缓冲开头等待下次读取。
+ * <p>
+ * 只支持阻塞读取，非阻塞模式的 {@link SelectableChannel} 读不到数据时会返回 0，不能用于流式读取。
+ * <p>
+ * 非线程安全
+ *
+ * @param <T> 结构体类型
+ */
+public class StructReader<T> implements Iterable<T>, Closeable {
+
+  /**
+   * 默认的缓冲大小：64KB
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 64 << 10;
+
+  private final StructClass structClass;
+  private final InputStream in;
+  private final ReadableByteChannel channel;
+  /**
+   * 记录长度
+   */
+  private final int recordSize;
+  /**
+   * 读取缓冲，写模式；[0, position) 为未解析的数据
+   */
+  private final ByteBuffer buf;
+  /**
+   * 已解析的位置
+   */
+  private int readIndex;
+  /**
+   * 是否已读到流的末尾
+   */
+  private boolean eof;
+  /**
+   * 读取的次数
+   */
+  private long reads;
+
+  public StructReader(StructClass structClass, InputStream in) {
+    this(structClass, in, null, DEFAULT_BUFFER_SIZE);
+  }
+
+  public StructReader(StructClass structClass, InputStream in, int bufferSize) {
+    this(structClass, in, null, bufferSize);
+  }
+
+  public StructReader(StructClass structClass, ReadableByteChannel channel) {
+    this(structClass, null, channel, DEFAULT_BUFFER_SIZE);
+  }
+
+  public StructReader(StructClass structClass, ReadableByteChannel channel, int bufferSize) {
+    this(structClass, null, channel, bufferSize);
+  }
+
+  private StructReader(StructClass structClass, InputStream in, ReadableByteChannel channel, int bufferSize) {
+    structClass.requireFixedSize("流式读取");
+    if (isNonBlocking(channel)) {
+      throw new IllegalArgumentException("不支持非阻塞模式的通道: " + channel);
+    }
+    this.structClass = structClass;
+    this.in = in;
+    this.channel = channel;
+    this.recordSize = structClass.getSize();
+    if (recordSize <= 0) {
+      throw new IllegalArgumentException("结构体长度错误: " + recordSize);
+    }
+    // 缓冲至少能容纳一条记录，并按记录长度对齐
+    int capacity = Math.max(bufferSize, recordSize);
+    this.buf = ByteBuffer.allocate(capacity - capacity % recordSize);
+  }
+
+  public StructClass getStructClass() {
+    return structClass;
+  }
+
+  /**
+   * 底层流的读取次数
+   */
+  public long getReads() {
+    return reads;
+  }
+
+  /**
+   * 读取下一条记录
+   *
+   * @return 返回解析的对象，流结束时返回 null
+   * @throws IOException  读取失败
+   * @throws EOFException 流结束时剩余不完整的记录
+   */
+  public T next() throws IOException {
+    return next(null);
+  }
+
+  /**
+   * 读取下一条记录到已有的对象中
+   *
+   * @param target 目标对象，为 null 时创建新对象
+   * @return 返回解析的对象，流结束时返回 null
+   * @throws IOException  读取失败
+   * @throws EOFException 流结束时剩余不完整的记录
+   */
+  public T next(T target) throws IOException {
+    if (!fill()) {
+      return null;
+    }
+    int position = readIndex;
+    readIndex += recordSize;
+    if (target != null) {
+      return structClass.parseInto(target, buf.array(), position);
+    }
+    return structClass.parseObject(buf.array(), position, recordSize);
+  }
+
+  /**
+   * 是否还有下一条记录
+   *
+   * @throws IOException 读取失败
+   */
+  public boolean hasNext() throws IOException {
+    return fill();
+  }
+
+  /**
+   * 保证缓冲中至少有一条完整的记录
+   *
+   * @return 返回是否有完整的记录
+   */
+  protected boolean fill() throws IOException {
+    if (buf.position() - readIndex >= recordSize) {
+      return true;
+    }
+    // 压缩：未解析的数据移动到开头
+    if (readIndex > 0) {
+      buf.flip().position(readIndex);
+      buf.compact();
+      readIndex = 0;
+    }
+    while (!eof && buf.position() < recordSize) {
+      int n;
+      if (in != null) {
+        n = in.read(buf.array(), buf.position(), buf.remaining());
+        if (n > 0) {
+          buf.position(buf.position() + n);
+        }
+      } else {
+        n = channel.read(buf);
+        // 非阻塞的通道没有数据时返回 0，不能空转等待
+        if (n == 0 && isNonBlocking(channel)) {
+          throw new IllegalStateException("不支持非阻塞模式的通道: " + channel);
+        }
+      }
+      reads++;
+      if (n < 0) {
+        eof = true;
+      }
+    }
+    int available = buf.position();
+    if (available >= recordSize) {
+      return true;
+    }
+    if (available > 0) {
+      throw new EOFException("不完整的结构体数据，要求长度" + recordSize + "，实际长度" + available);
+    }
+    return false;
+  }
+
+  /**
+   * 是否为非阻塞模式的通道
+   */
+  static boolean isNonBlocking(ReadableByteChannel channel) {
+    return channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      @Override
+      public boolean hasNext() {
+        try {
+          return StructReader.this.hasNext();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      @Override
+      public T next() {
+        try {
+          T o = StructReader.this.next();
+          if (o == null) {
+            throw new NoSuchElementException();
+          }
+          return o;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+  }
+
+  /**
+   * 顺序读取的流
+   */
+  public Stream<T> stream() {
+    Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+    } else {
+      channel.close();
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+package com.benefitj.javastruct;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 扫描包下被 {@link JavaStructClass} 注解的类，支持目录和 jar 包
+ */
+public final class StructScanner {
+
+  private StructScanner() {
+  }
+
+  /**
+   * 扫描包(包含子包)下的结构体
+   *
+   * @param packageName 包名
+   * @param loader      类加载器
+   * @return 返回扫描到的结构体类型
+   */
+  public static List<Class<?>> scan(String packageName, ClassLoader loader) {
+    String path = packageName.replace('.', '/');
+    Set<String> classNames = new LinkedHashSet<>();
+    try {
+      Enumeration<URL> resources = loader.getResources(path);
+      while (resources.hasMoreElements()) {
+        URL url = resources.nextElement();
+        if ("file".equals(url.getProtocol())) {
+          File dir = new File(URLDecoder.decode(url.getFile(), StandardCharsets.UTF_8.name()));
+          scanDirectory(dir, packageName, classNames);
+        } else if ("jar".equals(url.getProtocol())) {
+          JarURLConnection conn = (JarURLConnection) url.openConnection();
+          // 不使用缓存的 JarFile，关闭时不影响其他使用者
+          conn.setUseCaches(false);
+          try (JarFile jar = conn.getJarFile()) {
+            scanJar(jar, path, classNames);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    List<Class<?>> types = new ArrayList<>();
+    for (String name : classNames) {
+      Class<?> type;
+      try {
+        type = Class.forName(name, false, loader);
+      } catch (ClassNotFoundException | LinkageError e) {
+        continue;
+      }
+      if (isStructClass(type)) {
+        types.add(type);
+      }
+    }
+    return types;
+  }
+
+  /**
+   * 是否为可实例化的结构体
+   */
+  static boolean isStructClass(Class<?> type) {
+    int modifiers = type.getModifiers();
+    return type.isAnnotationPresent(JavaStructClass.class)
+        && !type.isInterface()
+        && !type.isAnnotation()
+        && !Modifier.isAbstract(modifiers)
+        && (type.getEnclosingClass() == null || Modifier.isStatic(modifiers));
+  }
+
+  private static void scanDirectory(File dir, String packageName, Set<String> classNames) {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      String name = file.getName();
+      if (file.isDirectory()) {
+        scanDirectory(file, packageName + "." + name, classNames);
+      } else if (name.endsWith(".class")) {
+        classNames.add(packageName + "." + name.substring(0, name.length() - 6));
+      }
+    }
+  }
+
+  private static void scanJar(JarFile jar, String path, Set<String> classNames) {
+    Enumeration<JarEntry> entries = jar.entries();
+    while (entries.hasMoreElements()) {
+      String name = entries.nextElement().getName();
+      if (name.startsWith(path + "/") && name.endsWith(".class")) {
+        classNames.add(name.substring(0, name.length() - 6).replace('/', '.'));
+      }
+    }
+  }
+
+}
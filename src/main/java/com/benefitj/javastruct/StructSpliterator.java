@@ -0,0 +1,91 @@
+package com.benefitj.javastruct;
+
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 固定长度结构体的分割迭代器：按记录边界对半分割，可用于并行流；
+ * 按绝对位置读取缓冲，不改变缓冲的 position
+ *
+ * @param <T> 结构体类型
+ */
+public class StructSpliterator<T> implements Spliterator<T> {
+
+  private final StructClass structClass;
+  private final ByteBuffer data;
+  /**
+   * 第一条记录的位置
+   */
+  private final int base;
+  /**
+   * 当前的记录下标
+   */
+  private int index;
+  /**
+   * 结束的记录下标(不包含)
+   */
+  private final int fence;
+
+  /**
+   * @param structClass 结构体
+   * @param data        数据缓冲，从 position 到 limit 之间的完整记录
+   */
+  public StructSpliterator(StructClass structClass, ByteBuffer data) {
+    this(structClass, data, data.position(), 0, count(structClass, data));
+  }
+
+  protected StructSpliterator(StructClass structClass, ByteBuffer data, int base, int index, int fence) {
+    this.structClass = structClass;
+    this.data = data;
+    this.base = base;
+    this.index = index;
+    this.fence = fence;
+  }
+
+  private static int count(StructClass structClass, ByteBuffer data) {
+    structClass.requireFixedSize("分割迭代");
+    return data.remaining() / structClass.getSize();
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (index < fence) {
+      action.accept(structClass.parseObject(data, base + index * structClass.getSize()));
+      index++;
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    int size = structClass.getSize();
+    for (int i = index, position = base + i * size; i < fence; i++, position += size) {
+      action.accept(structClass.parseObject(data, position));
+    }
+    index = fence;
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    int mid = (index + fence) >>> 1;
+    if (mid <= index) {
+      return null;
+    }
+    StructSpliterator<T> prefix = new StructSpliterator<>(structClass, data, base, index, mid);
+    index = mid;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return fence - index;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+  }
+
+}
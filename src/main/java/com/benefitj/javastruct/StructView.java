@@ -0,0 +1,43 @@
+package com.benefitj.javastruct;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 结构体的视图：直接从编码后的数据中按需读取字段，不创建结构体对象；
+ * 视图接口中的 getter(getXxx()、isXxx() 或 xxx()) 对应结构体中的同名字段，
+ * 返回值类型需与字段类型一致；数组字段也可声明为 getXxx(T[] dst)，读取到传入的数组中，
+ * 返回 T[] 或 void，传入数组的长度需与字段一致。
+ * <p>
+ * 接口标注 {@link JavaStructView} 时，编译期生成实现类，getter 直接读取基本类型，
+ * 不装箱、不经过动态代理；结构体不支持生成时使用动态代理。
+ * <p>
+ * 视图可重复指向不同的记录，非线程安全
+ *
+ * @param <V> 视图类型
+ */
+public interface StructView<V extends StructView<V>> {
+
+  /**
+   * 指向数组中的记录
+   *
+   * @param data   数据
+   * @param offset 记录开始的位置
+   * @return 返回当前视图
+   */
+  V wrap(byte[] data, int offset);
+
+  /**
+   * 指向缓冲中的记录，按绝对位置读取
+   *
+   * @param data   数据缓冲
+   * @param offset 记录开始的位置
+   * @return 返回当前视图
+   */
+  V wrap(ByteBuffer data, int offset);
+
+  /**
+   * 当前记录开始的位置
+   */
+  int offset();
+
+}
@@ -0,0 +1,203 @@
+package com.benefitj.javastruct;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 创建结构体的视图
+ * <p>
+ * 标注了 {@link JavaStructView} 的视图优先使用编译期生成的实现，getter 直接读取基本类型；
+ * 否则使用动态代理
+ */
+public class StructViews {
+
+  /**
+   * 编译期生成的视图实现，不存在时为 null
+   */
+  private static final ClassValue<Constructor<?>> GENERATED = new ClassValue<Constructor<?>>() {
+    @Override
+    protected Constructor<?> computeValue(Class<?> viewType) {
+      return findGenerated(viewType);
+    }
+  };
+
+  /**
+   * 创建视图，优先使用编译期生成的实现
+   *
+   * @param structClass 结构体，需包含字段信息
+   * @param viewType    视图接口
+   * @param <V>         视图类型
+   * @return 返回视图
+   */
+  public static <V extends StructView<V>> V create(StructClass structClass, Class<V> viewType) {
+    return create(structClass, viewType, true);
+  }
+
+  /**
+   * 创建视图，getter 与字段的对应关系在创建时解析一次
+   *
+   * @param structClass 结构体，需包含字段信息
+   * @param viewType    视图接口
+   * @param generated   是否使用编译期生成的实现
+   * @param <V>         视图类型
+   * @return 返回视图
+   */
+  public static <V extends StructView<V>> V create(StructClass structClass, Class<V> viewType, boolean generated) {
+    if (!viewType.isInterface()) {
+      throw new IllegalArgumentException("视图类型必须是接口: " + viewType.getName());
+    }
+    structClass.requireFixedSize("视图");
+    StructPlan plan = structClass.getPlan();
+    Map<Method, Getter> getters = new HashMap<>();
+    for (Method method : viewType.getMethods()) {
+      if (method.getDeclaringClass() == StructView.class || Modifier.isStatic(method.getModifiers())) {
+        continue;
+      }
+      int index = method.getParameterCount() <= 1 ? plan.indexOf(propertyName(method.getName())) : -1;
+      if (index < 0) {
+        throw new IllegalArgumentException("视图方法没有对应的字段: " + method);
+      }
+      StructField field = plan.field(index);
+      boolean fill = method.getParameterCount() == 1;
+      if (fill ? !(field.isArray() && method.getParameterTypes()[0] == field.getType()
+          && (method.getReturnType() == field.getType() || method.getReturnType() == void.class))
+          : method.getReturnType() != field.getType()) {
+        throw new IllegalArgumentException(String.format(
+            "视图方法的返回值类型与字段类型不一致: %s, 字段类型: %s", method, field.getType().getName()));
+      }
+      getters.put(method, new Getter(FieldCodecs.create(field), plan.offset(index), fill));
+    }
+    JavaStructView jsv = viewType.getAnnotation(JavaStructView.class);
+    Constructor<?> constructor = generated && jsv != null && jsv.value() == structClass.getType()
+        ? GENERATED.get(viewType) : null;
+    if (constructor != null) {
+      try {
+        return viewType.cast(constructor.newInstance());
+      } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+        throw new IllegalStateException("无法创建视图: " + constructor.getDeclaringClass().getName(), e);
+      }
+    }
+    ViewHandler handler = new ViewHandler(viewType, getters);
+    Object proxy = Proxy.newProxyInstance(viewType.getClassLoader(), new Class<?>[]{viewType}, handler);
+    return viewType.cast(proxy);
+  }
+
+  /**
+   * 查找编译期生成的视图实现："接口名$$StructView"
+   */
+  static Constructor<?> findGenerated(Class<?> viewType) {
+    String pkg = viewType.getPackage() != null ? viewType.getPackage().getName() : "";
+    String simple = pkg.isEmpty() ? viewType.getName() : viewType.getName().substring(pkg.length() + 1);
+    String name = (pkg.isEmpty() ? "" : pkg + ".") + simple.replace('$', '_') + "$$StructView";
+    try {
+      Class<?> klass = Class.forName(name, false, viewType.getClassLoader());
+      return viewType.isAssignableFrom(klass) ? klass.getConstructor() : null;
+    } catch (ClassNotFoundException | NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  /**
+   * 方法名对应的属性名：getXxx()、isXxx() 或 xxx()
+   */
+  static String propertyName(String name) {
+    String property = name;
+    if (name.length() > 3 && name.startsWith("get")) {
+      property = name.substring(3);
+    } else if (name.length() > 2 && name.startsWith("is")) {
+      property = name.substring(2);
+    }
+    return Character.toLowerCase(property.charAt(0)) + property.substring(1);
+  }
+
+  /**
+   * 字段的读取
+   */
+  static final class Getter {
+    final FieldCodec codec;
+    final int position;
+    /**
+     * 是否填充传入的数组
+     */
+    final boolean fill;
+
+    Getter(FieldCodec codec, int position, boolean fill) {
+      this.codec = codec;
+      this.position = position;
+      this.fill = fill;
+    }
+  }
+
+  /**
+   * 视图的调用处理：保存当前指向的数据和位置，调用 getter 时读取对应的字段
+   */
+  static final class ViewHandler implements InvocationHandler {
+
+    final Class<?> viewType;
+    final Map<Method, Getter> getters;
+    byte[] array;
+    ByteBuffer buffer;
+    int offset;
+
+    ViewHandler(Class<?> viewType, Map<Method, Getter> getters) {
+      this.viewType = viewType;
+      this.getters = getters;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      Getter getter = getters.get(method);
+      if (getter != null) {
+        Object value;
+        if (array != null) {
+          value = getter.codec.read(array, offset + getter.position);
+        } else if (buffer != null) {
+          value = getter.codec.read(buffer, offset + getter.position);
+        } else {
+          throw new IllegalStateException("视图未指向数据");
+        }
+        if (getter.fill) {
+          int length = Array.getLength(value);
+          if (Array.getLength(args[0]) != length) {
+            throw new IllegalArgumentException(String.format("数组长度不匹配，期待长度%d，实际长度%d",
+                length, Array.getLength(args[0])));
+          }
+          System.arraycopy(value, 0, args[0], 0, length);
+          return method.getReturnType() == void.class ? null : args[0];
+        }
+        return value;
+      }
+      switch (method.getName()) {
+        case "wrap":
+          if (args[0] instanceof byte[]) {
+            this.array = (byte[]) args[0];
+            this.buffer = null;
+          } else {
+            this.buffer = (ByteBuffer) args[0];
+            this.array = null;
+          }
+          this.offset = (Integer) args[1];
+          return proxy;
+        case "offset":
+          return offset;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return viewType.getSimpleName() + "@" + offset;
+        default:
+          throw new UnsupportedOperationException(method.toString());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,432 @@
+package com.benefitj.javastruct;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * 变长结构体的编解码器：变长字段的长度来自前面的长度字段或字段数据前的长度前缀，
+ * 编解码时按顺序计算每个字段的位置；固定长度的字段仍使用专用的字段编解码器
+ */
+public class VariableStructCodec implements StructCodec {
+
+  /**
+   * 字段
+   */
+  private final StructField[] fields;
+  /**
+   * 固定长度字段的编解码器，变长字段和位域单元中第一个之后的位域为 null
+   */
+  private final FieldCodec[] codecs;
+  /**
+   * 变长字段，固定长度字段为 null
+   */
+  private final VariableField[] variables;
+  /**
+   * 字段的固定部分的长度，变长字段为长度前缀的长度，位域单元中第一个之后的位域为0
+   */
+  private final int[] sizes;
+  /**
+   * 长度字段对应的变长字段下标，不是长度字段时为 -1
+   */
+  private final int[] lengthOf;
+  /**
+   * 变长字段的长度字段下标，使用长度前缀时为 -1
+   */
+  private final int[] lengthFrom;
+
+  public VariableStructCodec(StructPlan plan) {
+    int size = plan.length();
+    this.fields = new StructField[size];
+    this.codecs = new FieldCodec[size];
+    this.variables = new VariableField[size];
+    this.sizes = new int[size];
+    this.lengthOf = new int[size];
+    this.lengthFrom = new int[size];
+    Arrays.fill(lengthOf, -1);
+    Arrays.fill(lengthFrom, -1);
+    for (int i = 0; i < size; i++) {
+      StructField field = plan.field(i);
+      fields[i] = field;
+      sizes[i] = plan.size(i);
+      if (field.isVariable()) {
+        variables[i] = new VariableField(field);
+      } else if (field.isBitField()) {
+        // 同一个单元的位域由第一个位域一次读写
+        int end = FieldCodecs.bitUnitEnd(plan, i);
+        codecs[i] = FieldCodecs.createBitUnit(FieldCodecs.bitUnitMembers(plan, i, end));
+        for (int j = i + 1; j < end; j++) {
+          fields[j] = plan.field(j);
+        }
+        i = end - 1;
+      } else {
+        codecs[i] = FieldCodecs.create(field);
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      StructField lengthField = fields[i].getLengthField();
+      if (lengthField != null) {
+        for (int j = 0; j < i; j++) {
+          if (fields[j] == lengthField) {
+            lengthFrom[i] = j;
+            lengthOf[j] = i;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void encode(Object o, byte[] dest, int offset) {
+    int position = offset;
+    for (int i = 0; i < fields.length; i++) {
+      VariableField vf = variables[i];
+      if (vf != null) {
+        position += vf.encode(o, dest, position);
+      } else {
+        if (lengthOf[i] >= 0) {
+          // 长度字段写入变长字段的实际长度
+          int count = variables[lengthOf[i]].count(o);
+          IntegerBytes.putInteger(dest, position, sizes[i], checkLength(i, count), !fields[i].isLittleEndian());
+        } else if (codecs[i] != null) {
+          codecs[i].encode(o, dest, position);
+        }
+        position += sizes[i];
+      }
+    }
+  }
+
+  @Override
+  public void decode(Object o, byte[] data, int offset, int length) {
+    decode(o, data, offset, length, false);
+  }
+
+  @Override
+  public void decodeInto(Object o, byte[] data, int offset, int length) {
+    decode(o, data, offset, length, true);
+  }
+
+  /**
+   * 解码
+   *
+   * @param reuse 是否复用对象中长度一致的数组
+   */
+  protected void decode(Object o, byte[] data, int offset, int length, boolean reuse) {
+    int position = offset;
+    int end = offset + length;
+    for (int i = 0; i < fields.length; i++) {
+      if (position + sizes[i] > end) {
+        // 不完整的数据不做处理
+        break;
+      }
+      VariableField vf = variables[i];
+      if (vf != null) {
+        int count = lengthFrom[i] >= 0
+            ? readLength(o, lengthFrom[i])
+            : unsigned(IntegerBytes.getInteger(data, position, sizes[i], vf.bigEndian, true), sizes[i]);
+        vf.checkCount(count);
+        int dataSize = vf.dataSize(count);
+        if (position + sizes[i] + dataSize > end) {
+          break;
+        }
+        vf.decode(o, data, position + sizes[i], count, reuse);
+        position += sizes[i] + dataSize;
+      } else if (codecs[i] != null) {
+        if (reuse) {
+          codecs[i].decodeInto(o, data, position);
+        } else {
+          codecs[i].decode(o, data, position);
+        }
+        position += sizes[i];
+      }
+    }
+  }
+
+  @Override
+  public int sizeOf(Object o) {
+    int size = 0;
+    for (int i = 0; i < fields.length; i++) {
+      size += sizes[i];
+      VariableField vf = variables[i];
+      if (vf != null) {
+        size += vf.dataSize(vf.count(o));
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public int sizeOf(byte[] data, int offset, int length) {
+    return sizeOf(data, null, offset, length);
+  }
+
+  @Override
+  public int sizeOf(ByteBuffer data, int offset, int length) {
+    if (data.hasArray()) {
+      return sizeOf(data.array(), null, data.arrayOffset() + offset, length);
+    }
+    return sizeOf(null, data, offset, length);
+  }
+
+  /**
+   * 读取长度字段和长度前缀计算结构体的长度
+   *
+   * @param array 数据，为 null 时读取缓冲
+   * @param buf   数据缓冲
+   * @return 返回结构体的长度，数据不足以确定长度时返回 -1
+   */
+  private int sizeOf(byte[] array, ByteBuffer buf, int offset, int length) {
+    int[] counts = null;
+    int position = offset;
+    int end = offset + length;
+    for (int i = 0; i < fields.length; i++) {
+      if (position + sizes[i] > end) {
+        return -1;
+      }
+      VariableField vf = variables[i];
+      if (vf != null) {
+        int count = lengthFrom[i] >= 0 ? counts[i] : read(array, buf, position, i);
+        vf.checkCount(count);
+        position += sizes[i] + vf.dataSize(count);
+      } else {
+        if (lengthOf[i] >= 0) {
+          if (counts == null) {
+            counts = new int[fields.length];
+          }
+          counts[lengthOf[i]] = read(array, buf, position, i);
+        }
+        position += sizes[i];
+      }
+    }
+    return position - offset;
+  }
+
+  private int read(byte[] array, ByteBuffer buf, int position, int index) {
+    boolean bigEndian = !fields[index].isLittleEndian();
+    long v = array != null
+        ? IntegerBytes.getInteger(array, position, sizes[index], bigEndian, true)
+        : IntegerBytes.getInteger(buf, position, sizes[index], bigEndian, true);
+    return unsigned(v, sizes[index]);
+  }
+
+  /**
+   * 读取对象中已解码的长度字段
+   */
+  private int readLength(Object o, int index) {
+    StructField field = fields[index];
+    FieldAccessor accessor = field.getAccessor();
+    Class<?> type = field.getType();
+    long v;
+    if (type == byte.class) {
+      v = accessor.getByte(o);
+    } else if (type == short.class) {
+      v = accessor.getShort(o);
+    } else if (type == int.class) {
+      v = accessor.getInt(o);
+    } else {
+      v = accessor.getLong(o);
+    }
+    return unsigned(v, sizes[index]);
+  }
+
+  /**
+   * 长度按无符号数处理
+   */
+  private static int unsigned(long v, int width) {
+    if (width < 8) {
+      v &= (1L << (width << 3)) - 1;
+    }
+    if (v < 0 || v > Integer.MAX_VALUE) {
+      throw new IllegalStateException("变长字段的长度错误: " + v);
+    }
+    return (int) v;
+  }
+
+  /**
+   * 检查长度字段能否保存变长字段的长度
+   */
+  private int checkLength(int index, int count) {
+    int width = sizes[index];
+    if (width < 4 && count >= (1 << (width << 3))) {
+      throw new IllegalStateException(String.format(
+          "长度字段[%s]无法保存长度: %d", fields[index].getField().getName(), count));
+    }
+    return count;
+  }
+
+  /**
+   * 变长字段：基本数据类型的数组或字符串
+   */
+  static final class VariableField {
+
+    private final StructField field;
+    private final FieldAccessor f;
+    private final PrimitiveType kind;
+    /**
+     * 单个元素的长度，字符串为1
+     */
+    private final int width;
+    /**
+     * 长度前缀的长度
+     */
+    private final int prefix;
+    private final boolean bigEndian;
+    private final boolean unsigned;
+    /**
+     * 最大长度，0 表示不限制
+     */
+    private final int max;
+    private final Charset charset;
+
+    VariableField(StructField field) {
+      this.field = field;
+      this.f = field.getAccessor();
+      this.kind = field.getPrimitiveType();
+      boolean string = kind == PrimitiveType.STRING;
+      this.width = string ? 1 : field.getFieldSize();
+      this.prefix = field.getLengthPrefix();
+      this.bigEndian = !field.isLittleEndian();
+      this.unsigned = field.isUnsigned();
+      this.max = string ? field.getAnnotation().size() : field.getArrayLength();
+      this.charset = string ? field.getCharsetObject() : null;
+    }
+
+    /**
+     * 字段的长度：数组的元素数量或字符串的字节数
+     */
+    int count(Object o) {
+      return checkCount(count0(f.get(o)));
+    }
+
+    private int count0(Object v) {
+      if (v == null) {
+        return 0;
+      }
+      return kind == PrimitiveType.STRING
+          ? StringCodec.encodedLength((String) v, charset)
+          : kind.arrayLength(v);
+    }
+
+    int checkCount(int count) {
+      if (max > 0 && count > max) {
+        throw new IllegalStateException(String.format(
+            "变长字段[%s.%s]的长度超出限制: %d > %d"
+            , field.getDeclaringClass().getName(), field.getField().getName(), count, max));
+      }
+      return count;
+    }
+
+    /**
+     * 数据的长度，不包含长度前缀
+     */
+    int dataSize(int count) {
+      return count * width;
+    }
+
+    /**
+     * 编码长度前缀和数据
+     *
+     * @return 返回写入的长度
+     */
+    int encode(Object o, byte[] dest, int position) {
+      Object v = f.get(o);
+      int count = checkCount(count0(v));
+      if (prefix > 0) {
+        IntegerBytes.putInteger(dest, position, prefix, count, bigEndian);
+      }
+      if (v != null) {
+        write(v, count, dest, position + prefix);
+      }
+      return prefix + dataSize(count);
+    }
+
+    private void write(Object v, int count, byte[] dest, int p) {
+      switch (kind) {
+        case STRING:
+          StringCodec.encode((String) v, charset, dest, p, count);
+          break;
+        case BYTE_ARRAY:
+          System.arraycopy((byte[]) v, 0, dest, p, count);
+          break;
+        case SHORT_ARRAY:
+          FieldCodecs.putShorts(dest, p, width, bigEndian, (short[]) v, count);
+          break;
+        case INTEGER_ARRAY:
+          FieldCodecs.putInts(dest, p, width, bigEndian, (int[]) v, count);
+          break;
+        case LONG_ARRAY:
+          FieldCodecs.putLongs(dest, p, width, bigEndian, (long[]) v, count);
+          break;
+        case FLOAT_ARRAY:
+          FieldCodecs.view(dest, p, count * 4, bigEndian).asFloatBuffer().put((float[]) v, 0, count);
+          break;
+        case DOUBLE_ARRAY:
+          FieldCodecs.view(dest, p, count * 8, bigEndian).asDoubleBuffer().put((double[]) v, 0, count);
+          break;
+        default:
+          throw new IllegalStateException("不支持的变长字段类型: " + kind);
+      }
+    }
+
+    /**
+     * 解码数据
+     *
+     * @param o     对象
+     * @param data  数据
+     * @param p     数据开始的位置(长度前缀之后)
+     * @param count 数组的元素数量或字符串的字节数
+     * @param reuse 是否复用对象中长度一致的数组
+     */
+    void decode(Object o, byte[] data, int p, int count, boolean reuse) {
+      Object old = reuse ? f.get(o) : null;
+      Object v;
+      switch (kind) {
+        case STRING:
+          v = StringCodec.decode(data, p, count, charset);
+          break;
+        case BYTE_ARRAY: {
+          byte[] array = old instanceof byte[] && ((byte[]) old).length == count ? (byte[]) old : new byte[count];
+          System.arraycopy(data, p, array, 0, count);
+          v = array;
+          break;
+        }
+        case SHORT_ARRAY: {
+          short[] array = old instanceof short[] && ((short[]) old).length == count ? (short[]) old : new short[count];
+          FieldCodecs.getShorts(data, p, width, bigEndian, unsigned, array, count);
+          v = array;
+          break;
+        }
+        case INTEGER_ARRAY: {
+          int[] array = old instanceof int[] && ((int[]) old).length == count ? (int[]) old : new int[count];
+          FieldCodecs.getInts(data, p, width, bigEndian, unsigned, array, count);
+          v = array;
+          break;
+        }
+        case LONG_ARRAY: {
+          long[] array = old instanceof long[] && ((long[]) old).length == count ? (long[]) old : new long[count];
+          FieldCodecs.getLongs(data, p, width, bigEndian, unsigned, array, count);
+          v = array;
+          break;
+        }
+        case FLOAT_ARRAY: {
+          float[] array = old instanceof float[] && ((float[]) old).length == count ? (float[]) old : new float[count];
+          FieldCodecs.view(data, p, count * 4, bigEndian).asFloatBuffer().get(array, 0, count);
+          v = array;
+          break;
+        }
+        case DOUBLE_ARRAY: {
+          double[] array = old instanceof double[] && ((double[]) old).length == count ? (double[]) old : new double[count];
+          FieldCodecs.view(data, p, count * 8, bigEndian).asDoubleBuffer().get(array, 0, count);
+          v = array;
+          break;
+        }
+        default:
+          throw new IllegalStateException("不支持的变长字段类型: " + kind);
+      }
+      if (v != old) {
+        f.set(o, v);
+      }
+    }
+  }
+
+}
@@ -2,10 +2,12 @@ package com.benefitj.javastruct.convert;
 
 import com.benefitj.javastruct.JavaStructField;
 import com.benefitj.javastruct.PrimitiveType;
+import com.benefitj.javastruct.StringCodec;
 import com.benefitj.javastruct.StructField;
 
 import java.lang.reflect.Field;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.function.Function;
 
 /**
@@ -54,7 +56,6 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   @Override
   public abstract T parse(StructField field, byte[] data, int position);
 
-
   /**
    * 转换布尔类型
    *
@@ -93,7 +94,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertShort(StructField field, Object value) {
-    return convert(field, value, o -> getBinary().shortToBytes(((Number) value).shortValue(), field.getByteOrder()));
+    return convertNumber(field, ((Number) value).shortValue());
   }
 
   /**
@@ -104,7 +105,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertInteger(StructField field, Object value) {
-    return convert(field, value, o -> getBinary().intToBytes(((Number) value).intValue(), field.getByteOrder()));
+    return convertNumber(field, ((Number) value).intValue());
   }
 
   /**
@@ -115,7 +116,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertLong(StructField field, Object value) {
-    return convert(field, value, o -> getBinary().longToBytes(((Number) value).longValue(), field.getByteOrder()));
+    return convertNumber(field, ((Number) value).longValue());
   }
 
   /**
@@ -126,8 +127,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertFloat(StructField field, Object value) {
-    return convert(field, value, o ->
-        getBinary().intToBytes(Float.floatToIntBits(((Number) value).floatValue()), field.getByteOrder()));
+    return convertNumber(field, Float.floatToIntBits(((Number) value).floatValue()));
   }
 
   /**
@@ -138,8 +138,21 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertDouble(StructField field, Object value) {
-    return convert(field, value, o ->
-        getBinary().longToBytes(Double.doubleToLongBits(((Number) value).doubleValue()), field.getByteOrder()));
+    return convertNumber(field, Double.doubleToLongBits(((Number) value).doubleValue()));
+  }
+
+  /**
+   * 转换数值，按字段长度和字节序写入缓存数组
+   *
+   * @param field 字段信息
+   * @param value 值
+   * @return 返回转换后的数据
+   */
+  public byte[] convertNumber(StructField field, long value) {
+    int size = field.getFieldSize() > 0 ? field.getFieldSize() : field.getPrimitiveType().getSize();
+    byte[] buf = getCache(size);
+    getBinary().writeLong(buf, 0, size, value, field.getByteOrder());
+    return buf;
   }
 
   /**
@@ -151,10 +164,12 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    */
   public byte[] convertString(StructField field, Object value) {
     String str = (String) value;
-    byte[] bytes = str.getBytes(Charset.forName(field.getCharset()));
-    int size = field.getFieldSize() > 0 ? field.getFieldSize() : bytes.length;
-    byte[] buf = getCache(size);
-    return copy(bytes, 0, buf, 0, Math.min(buf.length, bytes.length));
+    if (field.getFieldSize() <= 0) {
+      return str.getBytes(field.getCharsetObject());
+    }
+    byte[] buf = getCache(field.getFieldSize());
+    StringCodec.encode(str, field.getCharsetObject(), buf, 0, buf.length);
+    return buf;
   }
 
   /**
@@ -242,13 +257,29 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的字节数组
    */
   public byte[] convertShortArray(StructField field, Object value) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    byte[] buf = getCache(field.size());
     if (value.getClass() == short[].class) {
       short[] array = (short[]) value;
-      return convertArray(field, i -> getBinary().shortToBytes(array[i]));
+      int length = Math.min(array.length, field.getArrayLength());
+      if (ratio == 2) {
+        // 元素长度等于类型长度，批量写入
+        wrap(field, buf, 0).asShortBuffer().put(array, 0, length);
+      } else {
+        for (int i = 0; i < length; i++) {
+          getBinary().writeShort(buf, i * ratio, ratio, array[i], order);
+        }
+      }
     } else {
       Short[] array = (Short[]) value;
-      return convertArray(field, i -> array[i] != null ? getBinary().shortToBytes(array[i]) : null);
+      for (int i = 0, length = Math.min(array.length, field.getArrayLength()); i < length; i++) {
+        if (array[i] != null) {
+          getBinary().writeShort(buf, i * ratio, ratio, array[i], order);
+        }
+      }
     }
+    return buf;
   }
 
   /**
@@ -259,13 +290,29 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的字节数组
    */
   public byte[] convertIntegerArray(StructField field, Object value) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    byte[] buf = getCache(field.size());
     if (value.getClass() == int[].class) {
       int[] array = (int[]) value;
-      return convertArray(field, i -> getBinary().intToBytes(array[i]));
+      int length = Math.min(array.length, field.getArrayLength());
+      if (ratio == 4) {
+        // 元素长度等于类型长度，批量写入
+        wrap(field, buf, 0).asIntBuffer().put(array, 0, length);
+      } else {
+        for (int i = 0; i < length; i++) {
+          getBinary().writeInt(buf, i * ratio, ratio, array[i], order);
+        }
+      }
     } else {
       Integer[] array = (Integer[]) value;
-      return convertArray(field, i -> array[i] != null ? getBinary().intToBytes(array[i]) : null);
+      for (int i = 0, length = Math.min(array.length, field.getArrayLength()); i < length; i++) {
+        if (array[i] != null) {
+          getBinary().writeInt(buf, i * ratio, ratio, array[i], order);
+        }
+      }
     }
+    return buf;
   }
 
   /**
@@ -276,13 +323,29 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的字节数组
    */
   public byte[] convertLongArray(StructField field, Object value) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    byte[] buf = getCache(field.size());
     if (value.getClass() == long[].class) {
       long[] array = (long[]) value;
-      return convertArray(field, i -> getBinary().longToBytes(array[i]));
+      int length = Math.min(array.length, field.getArrayLength());
+      if (ratio == 8) {
+        // 元素长度等于类型长度，批量写入
+        wrap(field, buf, 0).asLongBuffer().put(array, 0, length);
+      } else {
+        for (int i = 0; i < length; i++) {
+          getBinary().writeLong(buf, i * ratio, ratio, array[i], order);
+        }
+      }
     } else {
       Long[] array = (Long[]) value;
-      return convertArray(field, i -> array[i] != null ? getBinary().longToBytes(array[i]) : null);
+      for (int i = 0, length = Math.min(array.length, field.getArrayLength()); i < length; i++) {
+        if (array[i] != null) {
+          getBinary().writeLong(buf, i * ratio, ratio, array[i], order);
+        }
+      }
     }
+    return buf;
   }
 
   /**
@@ -293,14 +356,29 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的字节数组
    */
   public byte[] convertFloatArray(StructField field, Object value) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    byte[] buf = getCache(field.size());
     if (value.getClass() == float[].class) {
       float[] array = (float[]) value;
-      return convertArray(field, i -> getBinary().intToBytes(Float.floatToIntBits(array[i])));
+      int length = Math.min(array.length, field.getArrayLength());
+      if (ratio == 4) {
+        // 元素长度等于类型长度，批量写入
+        wrap(field, buf, 0).asFloatBuffer().put(array, 0, length);
+      } else {
+        for (int i = 0; i < length; i++) {
+          getBinary().writeInt(buf, i * ratio, ratio, Float.floatToIntBits(array[i]), order);
+        }
+      }
     } else {
       Float[] array = (Float[]) value;
-      return convertArray(field, i ->
-          array[i] != null ? getBinary().intToBytes(Float.floatToIntBits(array[i])) : null);
+      for (int i = 0, length = Math.min(array.length, field.getArrayLength()); i < length; i++) {
+        if (array[i] != null) {
+          getBinary().writeInt(buf, i * ratio, ratio, Float.floatToIntBits(array[i]), order);
+        }
+      }
     }
+    return buf;
   }
 
   /**
@@ -311,14 +389,29 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的字节数组
    */
   public byte[] convertDoubleArray(StructField field, Object value) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    byte[] buf = getCache(field.size());
     if (value.getClass() == double[].class) {
       double[] array = (double[]) value;
-      return convertArray(field, i -> getBinary().longToBytes(Double.doubleToLongBits(array[i])));
+      int length = Math.min(array.length, field.getArrayLength());
+      if (ratio == 8) {
+        // 元素长度等于类型长度，批量写入
+        wrap(field, buf, 0).asDoubleBuffer().put(array, 0, length);
+      } else {
+        for (int i = 0; i < length; i++) {
+          getBinary().writeLong(buf, i * ratio, ratio, Double.doubleToLongBits(array[i]), order);
+        }
+      }
     } else {
       Double[] array = (Double[]) value;
-      return convertArray(field, i ->
-          array[i] != null ? getBinary().longToBytes(Double.doubleToLongBits(array[i])) : null);
+      for (int i = 0, length = Math.min(array.length, field.getArrayLength()); i < length; i++) {
+        if (array[i] != null) {
+          getBinary().writeLong(buf, i * ratio, ratio, Double.doubleToLongBits(array[i]), order);
+        }
+      }
     }
+    return buf;
   }
 
   /**
@@ -346,6 +439,18 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
     return buf;
   }
 
+  /**
+   * 包装数据为指定位置开始、字段字节顺序的缓冲，用于基本类型数组的批量转换
+   *
+   * @param field    字段信息
+   * @param data     数据
+   * @param position 开始的位置
+   * @return 返回缓冲
+   */
+  public ByteBuffer wrap(StructField field, byte[] data, int position) {
+    return ByteBuffer.wrap(data, position, data.length - position).order(field.getByteOrder());
+  }
+
   public int srcPos(byte[] src, int ratio) {
     return src.length >= ratio ? src.length - ratio : 0;
   }
@@ -392,7 +497,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换的短整数
    */
   public short parseShort(StructField field, byte[] data, int position, boolean signed) {
-    return getBinary().bytesToShort(copy(data, position, field.size()), field.getByteOrder(), signed);
+    return getBinary().readShort(data, position, field.size(), field.getByteOrder(), signed);
   }
 
   /**
@@ -405,7 +510,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换的整数
    */
   public int parseInt(StructField field, byte[] data, int position, boolean signed) {
-    return getBinary().bytesToInt(copy(data, position, field.size()), field.getByteOrder(), signed);
+    return getBinary().readInt(data, position, field.size(), field.getByteOrder(), signed);
   }
 
   /**
@@ -418,7 +523,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换的长整数
    */
   public long parseLong(StructField field, byte[] data, int position, boolean signed) {
-    return getBinary().bytesToLong(copy(data, position, field.size()), field.getByteOrder(), signed);
+    return getBinary().readLong(data, position, field.size(), field.getByteOrder(), signed);
   }
 
   /**
@@ -431,7 +536,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换的单精度浮点数
    */
   public float parseFloat(StructField field, byte[] data, int position, boolean signed) {
-    return Float.floatToIntBits(parseInt(field, data, position, signed));
+    return Float.intBitsToFloat(parseInt(field, data, position, signed));
   }
 
   /**
@@ -458,6 +563,9 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public Object parseByteArray(StructField field, byte[] data, int start) {
     if (field.getType() == byte[].class) {
       byte[] array = getCache(field.getArrayLength(), false);
+      if (field.getFieldSize() == 1) {
+        return copy(data, start, array, 0, array.length);
+      }
       return parseArray(field, data, start, array, (arr, index, buf) -> arr[index] = buf[0]);
     } else {
       Byte[] array = new Byte[field.getArrayLength()];
@@ -474,14 +582,26 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回解析后的数组
    */
   public Object parseShortArray(StructField field, byte[] data, int start) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    int length = field.getArrayLength();
     if (field.getType() == short[].class) {
-      short[] array = new short[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToShort(buf, field.getByteOrder()));
+      short[] array = new short[length];
+      if (ratio == 2) {
+        // 元素长度等于类型长度，批量读取
+        wrap(field, data, start).asShortBuffer().get(array);
+      } else {
+        for (int i = 0, p = start; i < length; i++, p += ratio) {
+          array[i] = getBinary().readShort(data, p, ratio, order, !field.isUnsigned());
+        }
+      }
+      return array;
     } else {
-      Short[] array = new Short[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToShort(buf, field.getByteOrder()));
+      Short[] array = new Short[length];
+      for (int i = 0, p = start; i < length; i++, p += ratio) {
+        array[i] = getBinary().readShort(data, p, ratio, order, !field.isUnsigned());
+      }
+      return array;
     }
   }
 
@@ -494,14 +614,26 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回解析后的数组
    */
   public Object parseIntegerArray(StructField field, byte[] data, int start) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    int length = field.getArrayLength();
     if (field.getType() == int[].class) {
-      int[] array = new int[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToInt(buf, field.getByteOrder()));
+      int[] array = new int[length];
+      if (ratio == 4) {
+        // 元素长度等于类型长度，批量读取
+        wrap(field, data, start).asIntBuffer().get(array);
+      } else {
+        for (int i = 0, p = start; i < length; i++, p += ratio) {
+          array[i] = getBinary().readInt(data, p, ratio, order, !field.isUnsigned());
+        }
+      }
+      return array;
     } else {
-      Integer[] array = new Integer[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToInt(buf, field.getByteOrder()));
+      Integer[] array = new Integer[length];
+      for (int i = 0, p = start; i < length; i++, p += ratio) {
+        array[i] = getBinary().readInt(data, p, ratio, order, !field.isUnsigned());
+      }
+      return array;
     }
   }
 
@@ -514,14 +646,26 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回解析后的数组
    */
   public Object parseLongArray(StructField field, byte[] data, int start) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    int length = field.getArrayLength();
     if (field.getType() == long[].class) {
-      long[] array = new long[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToLong(buf, field.getByteOrder()));
+      long[] array = new long[length];
+      if (ratio == 8) {
+        // 元素长度等于类型长度，批量读取
+        wrap(field, data, start).asLongBuffer().get(array);
+      } else {
+        for (int i = 0, p = start; i < length; i++, p += ratio) {
+          array[i] = getBinary().readLong(data, p, ratio, order, !field.isUnsigned());
+        }
+      }
+      return array;
     } else {
-      Long[] array = new Long[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToLong(buf, field.getByteOrder()));
+      Long[] array = new Long[length];
+      for (int i = 0, p = start; i < length; i++, p += ratio) {
+        array[i] = getBinary().readLong(data, p, ratio, order, !field.isUnsigned());
+      }
+      return array;
     }
   }
 
@@ -534,14 +678,26 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回解析后的数组
    */
   public Object parseFloatArray(StructField field, byte[] data, int start) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    int length = field.getArrayLength();
     if (field.getType() == float[].class) {
-      float[] array = new float[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = Float.intBitsToFloat(getBinary().bytesToInt(buf, field.getByteOrder())));
+      float[] array = new float[length];
+      if (ratio == 4) {
+        // 元素长度等于类型长度，批量读取
+        wrap(field, data, start).asFloatBuffer().get(array);
+      } else {
+        for (int i = 0, p = start; i < length; i++, p += ratio) {
+          array[i] = Float.intBitsToFloat(getBinary().readInt(data, p, ratio, order, false));
+        }
+      }
+      return array;
     } else {
-      Float[] array = new Float[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = Float.intBitsToFloat(getBinary().bytesToInt(buf, field.getByteOrder())));
+      Float[] array = new Float[length];
+      for (int i = 0, p = start; i < length; i++, p += ratio) {
+        array[i] = Float.intBitsToFloat(getBinary().readInt(data, p, ratio, order, false));
+      }
+      return array;
     }
   }
 
@@ -554,14 +710,26 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回解析后的数组
    */
   public Object parseDoubleArray(StructField field, byte[] data, int start) {
+    int ratio = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
+    int length = field.getArrayLength();
     if (field.getType() == double[].class) {
-      double[] array = new double[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = Double.longBitsToDouble(getBinary().bytesToLong(buf, field.getByteOrder())));
+      double[] array = new double[length];
+      if (ratio == 8) {
+        // 元素长度等于类型长度，批量读取
+        wrap(field, data, start).asDoubleBuffer().get(array);
+      } else {
+        for (int i = 0, p = start; i < length; i++, p += ratio) {
+          array[i] = Double.longBitsToDouble(getBinary().readLong(data, p, ratio, order, false));
+        }
+      }
+      return array;
     } else {
-      Double[] array = new Double[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = Double.longBitsToDouble(getBinary().bytesToLong(buf, field.getByteOrder())));
+      Double[] array = new Double[length];
+      for (int i = 0, p = start; i < length; i++, p += ratio) {
+        array[i] = Double.longBitsToDouble(getBinary().readLong(data, p, ratio, order, false));
+      }
+      return array;
     }
   }
 
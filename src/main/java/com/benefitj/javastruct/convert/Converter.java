@@ -5,6 +5,8 @@ import com.benefitj.javastruct.PrimitiveType;
 import com.benefitj.javastruct.StructField;
 
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * 转换器
@@ -32,6 +34,44 @@ public interface Converter<T> {
    */
   byte[] convert(StructField field, Object value);
 
+  /**
+   * 转换数据并直接写入目标数组，不足字段长度的部分补0
+   *
+   * @param field    类字段信息
+   * @param value    字段值
+   * @param dest     目标数组
+   * @param position 字段开始的位置
+   */
+  default void write(StructField field, Object value, byte[] dest, int position) {
+    byte[] bytes = convert(field, value);
+    int size = field.size();
+    int len = Math.min(bytes.length, size);
+    System.arraycopy(bytes, 0, dest, position, len);
+    if (len < size) {
+      Arrays.fill(dest, position + len, position + size, (byte) 0);
+    }
+  }
+
+  /**
+   * 转换数据并按绝对位置写入目标缓冲，不改变缓冲的 position
+   *
+   * @param field    类字段信息
+   * @param value    字段值
+   * @param dest     目标缓冲
+   * @param position 字段开始的位置
+   */
+  default void write(StructField field, Object value, ByteBuffer dest, int position) {
+    byte[] bytes = convert(field, value);
+    int size = field.size();
+    int len = Math.min(bytes.length, size);
+    ByteBuffer buf = dest.duplicate();
+    buf.position(position);
+    buf.put(bytes, 0, len);
+    for (int i = len; i < size; i++) {
+      buf.put((byte) 0);
+    }
+  }
+
   /**
    * 解析数据
    *
@@ -42,4 +82,24 @@ public interface Converter<T> {
    */
   T parse(StructField field, byte[] data, int position);
 
+  /**
+   * 按绝对位置从缓冲中解析数据，不改变缓冲的 position；
+   * 堆缓冲直接读取底层数组，直接缓冲先拷贝字段的数据
+   *
+   * @param field    字节
+   * @param data     数据缓冲
+   * @param position 下表位置
+   * @return 返回解析后的对象
+   */
+  default T parse(StructField field, ByteBuffer data, int position) {
+    if (data.hasArray()) {
+      return parse(field, data.array(), data.arrayOffset() + position);
+    }
+    byte[] bytes = new byte[field.size()];
+    ByteBuffer buf = data.duplicate();
+    buf.position(position);
+    buf.get(bytes);
+    return parse(field, bytes, 0);
+  }
+
 }
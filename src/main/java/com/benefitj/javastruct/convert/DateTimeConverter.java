@@ -5,6 +5,7 @@ import com.benefitj.javastruct.PrimitiveType;
 import com.benefitj.javastruct.StructField;
 
 import java.lang.reflect.Field;
+import java.nio.ByteOrder;
 import java.sql.Timestamp;
 import java.util.Date;
 
@@ -35,40 +36,39 @@ public class DateTimeConverter extends AbstractConverter<Object> {
       time = ((Date) value).getTime();
     }
     int size = field.getFieldSize();
-    byte[] bytes;
+    ByteOrder order = field.getByteOrder();
+    byte[] buf = getCache(size);
     switch (size) {
       case 4:
-        bytes = getBinary().intToBytes((int) (time / 1000), field.getByteOrder());
+        // 秒
+        getBinary().writeInt(buf, 0, 4, (int) (time / 1000), order);
         break;
       case 6:
-        byte[] buf = getCache(6);
-        bytes = getBinary().longToBytes((int) (time / 1000), field.getByteOrder());
-        copy(bytes, 0, buf, 0);
-        bytes = getBinary().intToBytes((int) time % 1000, field.getByteOrder());
-        return copy(bytes, 0, buf, 4, 2);
+        // 秒 + 毫秒
+        getBinary().writeInt(buf, 0, 4, (int) (time / 1000), order);
+        getBinary().writeShort(buf, 4, 2, (short) (time % 1000), order);
+        break;
       case 8:
       default:
-        bytes = getBinary().longToBytes(time, field.getByteOrder());
+        // 毫秒
+        getBinary().writeLong(buf, 0, size, time, order);
         break;
     }
-    return copy(bytes, srcPos(bytes, size), getCache(size), destPos(bytes, size));
+    return buf;
   }
 
   @Override
   public Object parse(StructField field, byte[] data, int position) {
     long time;
     int size = field.getFieldSize();
+    ByteOrder order = field.getByteOrder();
     if (size == 4) {
-      byte[] buf = copy(data, position, getCache(size), 0);
-      time = getBinary().bytesToLong(buf, field.getByteOrder()) * 1000;
+      time = getBinary().readLong(data, position, 4, order, false) * 1000;
     } else if (size == 6) {
-      byte[] buf = copy(data, position, getCache(4), 0, 4);
-      time = getBinary().bytesToLong(buf, field.getByteOrder());
-      buf = copy(data, position + 4, getCache(2), 0, 2);
-      time += getBinary().bytesToLong(buf, field.getByteOrder());
+      time = getBinary().readLong(data, position, 4, order, false) * 1000
+          + getBinary().readLong(data, position + 4, 2, order, false);
     } else {
-      byte[] buf = copy(data, position, getCache(size), 0);
-      time = getBinary().bytesToLong(buf);
+      time = getBinary().readLong(data, position, size, order, false);
     }
 
     Field f = field.getField();
@@ -2,10 +2,10 @@ package com.benefitj.javastruct.convert;
 
 import com.benefitj.javastruct.JavaStructField;
 import com.benefitj.javastruct.PrimitiveType;
+import com.benefitj.javastruct.StringCodec;
 import com.benefitj.javastruct.StructField;
 
 import java.lang.reflect.Field;
-import java.nio.charset.Charset;
 
 /**
  * 默认的基本数据类型转换器
@@ -86,6 +86,40 @@ public class DefaultPrimitiveConverter extends AbstractConverter<Object> {
     }
   }
 
+  /**
+   * 数值和字符串类型直接写入目标数组，不经过缓存数组
+   */
+  @Override
+  public void write(StructField field, Object value, byte[] dest, int position) {
+    if (field.getPrimitiveType() == PrimitiveType.STRING && field.getFieldSize() > 0) {
+      StringCodec.encode((String) value, field.getCharsetObject(), dest, position, field.getFieldSize());
+      return;
+    }
+    if (value instanceof Number && field.getFieldSize() > 0) {
+      Number num = (Number) value;
+      long bits;
+      switch (field.getPrimitiveType()) {
+        case SHORT:
+        case INTEGER:
+        case LONG:
+          bits = num.longValue();
+          break;
+        case FLOAT:
+          bits = Float.floatToIntBits(num.floatValue());
+          break;
+        case DOUBLE:
+          bits = Double.doubleToLongBits(num.doubleValue());
+          break;
+        default:
+          super.write(field, value, dest, position);
+          return;
+      }
+      getBinary().writeLong(dest, position, field.getFieldSize(), bits, field.getByteOrder());
+      return;
+    }
+    super.write(field, value, dest, position);
+  }
+
   @Override
   public Object parse(StructField field, byte[] data, int position) {
     if (field.isArray()) {
@@ -110,23 +144,26 @@ public class DefaultPrimitiveConverter extends AbstractConverter<Object> {
     } else {
       Class<?> type = field.getField().getType();
       if (type.isAssignableFrom(Number.class)) {
-        return parseNumber(field, data, position, true);
+        return parseNumber(field, data, position, !field.isUnsigned());
       }
       // 基本数据类型
       if (type == boolean.class || type == Boolean.class) {
-        return parseShort(field, data, position, true) >= 1;
+        return parseShort(field, data, position, !field.isUnsigned()) >= 1;
       } else if (type == byte.class) {
-        return (byte) parseShort(field, data, position, true);
+        return (byte) parseShort(field, data, position, !field.isUnsigned());
       } else if (type == short.class) {
-        return parseShort(field, data, position, true);
+        return parseShort(field, data, position, !field.isUnsigned());
       } else if (type == int.class) {
-        return parseInt(field, data, position, true);
+        return parseInt(field, data, position, !field.isUnsigned());
       } else if (type == long.class) {
-        return parseLong(field, data, position, true);
+        return parseLong(field, data, position, !field.isUnsigned());
+      } else if (type == float.class) {
+        return parseFloat(field, data, position, true);
+      } else if (type == double.class) {
+        return parseDouble(field, data, position, true);
       } else if (type == String.class) {
-        byte[] buf = getCache(field.getFieldSize());
-        copy(data, position, buf, 0);
-        return new String(buf, Charset.forName(field.getCharset())).trim();
+        int size = Math.min(field.getFieldSize(), data.length - position);
+        return StringCodec.decode(data, position, size, field.getCharsetObject());
       }
     }
 
@@ -1,10 +1,12 @@
 package com.benefitj.javastruct.convert;
 
+import com.benefitj.javastruct.HexCodec;
 import com.benefitj.javastruct.JavaStructField;
 import com.benefitj.javastruct.PrimitiveType;
 import com.benefitj.javastruct.StructField;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
 
 /**
  * 16进制字符串转换
@@ -25,22 +27,31 @@ public class HexStringConverter extends AbstractConverter<String> {
 
   @Override
   public byte[] convert(StructField field, Object value) {
+    byte[] buf = getCache(field.getFieldSize());
+    write(field, value, buf, 0);
+    return buf;
+  }
+
+  /**
+   * 直接解码到目标数组：16进制数据比字段长时取后面的部分，比字段短时后面补0
+   */
+  @Override
+  public void write(StructField field, Object value, byte[] dest, int position) {
     int size = field.getFieldSize();
-    if (value != null) {
-      byte[] bytes = getBinary().hexToBytes((String) value);
-      if (bytes.length == size) {
-        return bytes;
-      }
-      byte[] buf = getCache(size);
-      return copy(bytes, srcPos(bytes, size), buf, 0, Math.min(bytes.length, buf.length));
+    String hex = (String) value;
+    int length = hex != null ? hex.length() / 2 : 0;
+    if (length >= size) {
+      HexCodec.decode(hex, (length - size) * 2, length * 2, dest, position);
+    } else {
+      HexCodec.decode(hex, 0, length * 2, dest, position);
+      Arrays.fill(dest, position + length, position + size, (byte) 0);
     }
-    return getCache(size);
   }
 
   @Override
   public String parse(StructField field, byte[] data, int position) {
-    byte[] buf = copy(data, position, getCache(field.getFieldSize()), 0, field.getFieldSize());
-    return getBinary().bytesToHex(buf);
+    int size = field.getFieldSize();
+    return size > 0 ? HexCodec.toHex(data, position, size, false) : null;
   }
 
 }
@@ -0,0 +1,72 @@
+package com.benefitj.javastruct.convert;
+
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+import com.benefitj.javastruct.PrimitiveType;
+import com.benefitj.javastruct.StructClass;
+import com.benefitj.javastruct.StructField;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * 嵌套结构体的转换器：字段或数组元素的类型被 {@link JavaStructClass} 注解，
+ * 使用解析字段时得到的结构体编解码
+ */
+public class StructConverter implements Converter<Object> {
+
+  @Override
+  public boolean support(Field field, JavaStructField jsf, PrimitiveType pt) {
+    Class<?> type = field.getType().isArray() ? field.getType().getComponentType() : field.getType();
+    return pt == null && type.isAnnotationPresent(JavaStructClass.class);
+  }
+
+  @Override
+  public byte[] convert(StructField field, Object value) {
+    byte[] bytes = new byte[field.size()];
+    write(field, value, bytes, 0);
+    return bytes;
+  }
+
+  @Override
+  public void write(StructField field, Object value, byte[] dest, int position) {
+    Arrays.fill(dest, position, position + field.size(), (byte) 0);
+    if (value == null) {
+      return;
+    }
+    StructClass nested = field.getStructClass();
+    if (field.isArray()) {
+      int length = Array.getLength(value);
+      if (length != field.getArrayLength()) {
+        throw new IllegalStateException(String.format(
+            "数组长度不匹配，期待长度%d，实际长度%d", field.getArrayLength(), length));
+      }
+      int elementSize = field.getFieldSize();
+      for (int i = 0; i < length; i++) {
+        Object element = Array.get(value, i);
+        if (element != null) {
+          nested.getCodec().encode(element, dest, position + i * elementSize);
+        }
+      }
+    } else {
+      nested.getCodec().encode(value, dest, position);
+    }
+  }
+
+  @Override
+  public Object parse(StructField field, byte[] data, int position) {
+    StructClass nested = field.getStructClass();
+    if (field.isArray()) {
+      int length = field.getArrayLength();
+      int elementSize = field.getFieldSize();
+      Object array = Array.newInstance(nested.getType(), length);
+      for (int i = 0; i < length; i++) {
+        Array.set(array, i, nested.parseObject(data, position + i * elementSize, nested.getSize()));
+      }
+      return array;
+    }
+    return nested.parseObject(data, position, nested.getSize());
+  }
+
+}
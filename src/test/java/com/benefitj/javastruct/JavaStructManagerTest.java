@@ -2,12 +2,21 @@ package com.benefitj.javastruct;
 
 import com.alibaba.fastjson.JSON;
 import com.benefitj.javastruct.entity.LeadWave;
+import com.benefitj.javastruct.entity.LeadWaveView;
 import com.benefitj.javastruct.entity.Person;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JavaStructManagerTest {
 
@@ -80,4 +89,78 @@ public class JavaStructManagerTest {
     System.err.println(JSON.toJSONString(lw));
   }
 
-}
\ No newline at end of file
+  /**
+   * 多线程同时获取结构体：未解析的类只解析一次，解析后的读取不加锁
+   */
+  @Test
+  public void testConcurrentStructClass() throws Exception {
+    AtomicInteger resolves = new AtomicInteger();
+    JavaStructManager jsm = new JavaStructManager();
+    jsm.setUseGeneratedCodec(false);
+    StructResolver resolver = jsm.getStructResolver();
+    jsm.setStructResolver((m, type) -> {
+      resolves.incrementAndGet();
+      return resolver.resolve(m, type);
+    });
+
+    int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+    int lookups = 1000000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 3; round++) {
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        List<Future<StructClass>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+          futures.add(executor.submit(() -> {
+            barrier.await();
+            StructClass sc = null;
+            for (int i = 0; i < lookups; i++) {
+              sc = jsm.getStructClass(i % 2 == 0 ? Person.class : LeadWave.class, true);
+            }
+            return sc;
+          }));
+        }
+        for (Future<StructClass> f : futures) {
+          Assert.assertNotNull(f.get());
+        }
+        long time = System.nanoTime() - start;
+        System.err.println(String.format("并发获取结构体: 线程=%d, 次数=%d, 耗时=%dms, %.1fns/op"
+            , threads, threads * lookups, time / 1000000, time / (double) (threads * lookups)));
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertEquals(2, resolves.get());
+    Assert.assertSame(jsm.getStructClass(Person.class, false), jsm.getStructClass(Person.class, true));
+
+    StructClass old = jsm.removeStructClass(Person.class);
+    Assert.assertNotNull(old);
+    Assert.assertNull(jsm.getStructClass(Person.class, false));
+    Assert.assertNotSame(old, jsm.getStructClass(Person.class, true));
+    Assert.assertEquals(3, resolves.get());
+  }
+
+  /**
+   * 启动时注册、扫描和预热
+   */
+  @Test
+  public void testWarmUp() {
+    JavaStructManager jsm = new JavaStructManager();
+    List<StructClass> scanned = jsm.scan("com.benefitj.javastruct.entity");
+    Assert.assertTrue(jsm.getRegistered().contains(Person.class));
+    Assert.assertTrue(jsm.getRegistered().contains(LeadWave.class));
+    Assert.assertFalse(jsm.getRegistered().contains(LeadWaveView.class));
+    Assert.assertEquals(scanned.size(), jsm.getRegistered().size());
+    // 重复注册不重新解析
+    Assert.assertSame(jsm.getStructClass(Person.class, false), jsm.register(Person.class).get(0));
+    Assert.assertEquals(scanned.size(), jsm.getRegistered().size());
+
+    StartupReport report = jsm.warmUp(2000);
+    Assert.assertEquals(scanned.size(), report.getCount());
+    Assert.assertEquals(2000, report.getIterations());
+    Assert.assertTrue(report.getWarmUpNanos() > 0);
+    System.err.println(report);
+  }
+
+}
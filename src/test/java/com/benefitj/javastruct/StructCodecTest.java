@@ -0,0 +1,1026 @@
+package com.benefitj.javastruct;
+
+import com.alibaba.fastjson.JSON;
+import com.benefitj.javastruct.entity.AdcFrame;
+import com.benefitj.javastruct.entity.DeviceStatus;
+import com.benefitj.javastruct.entity.FrameHeader;
+import com.benefitj.javastruct.entity.LeadWave;
+import com.benefitj.javastruct.entity.LeadWaveView;
+import com.benefitj.javastruct.entity.Person;
+import com.benefitj.javastruct.entity.Primitives;
+import com.benefitj.javastruct.entity.StatusFrame;
+import com.benefitj.javastruct.entity.Telemetry;
+import com.benefitj.javastruct.entity.UnsignedSample;
+import com.benefitj.javastruct.entity.WaveFrame;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StructCodecTest {
+
+  private JavaStructManager manager = JavaStructManager.INSTANCE;
+  /**
+   * 二进制工具
+   */
+  private BinaryHelper binary = BinaryHelper.INSTANCE;
+
+  static Person newPerson() {
+    Person person = new Person();
+    person.setName("蔡狗");
+    person.setAge(30);
+    short[] v5 = new short[200];
+    for (int i = 0; i < v5.length; i++) {
+      v5[i] = (short) (i * 331 - 20000);
+    }
+    person.setV5(v5);
+    person.setTime(1614652722824L);
+    person.setCreateTime(new Date(1614652722000L));
+    person.setHex("00008DE20A3CE8000000000000000000");
+    person.setHello("世界,你好!");
+    return person;
+  }
+
+  static LeadWave newLeadWave() {
+    short[] wave = new short[200];
+    for (int i = 0; i < wave.length; i++) {
+      wave[i] = (short) (Math.sin(i / 10.0) * 8000);
+    }
+    return new LeadWave(0x603DCD82L, new byte[]{1, -2}, wave);
+  }
+
+  /**
+   * 反射解析的结构体
+   */
+  StructClass resolve(Class<?> type) {
+    return manager.getStructResolver().resolve(manager, type);
+  }
+
+  /**
+   * 编译的编解码器、编译期生成的编解码器和反射的编解码器结果一致
+   */
+  @Test
+  public void testCompiledMatchesReflect() {
+    for (Object o : new Object[]{newPerson(), newLeadWave()}) {
+      StructClass sc = resolve(o.getClass());
+      assertTrue(sc.getCodec() instanceof CompiledStructCodec);
+      ReflectStructCodec reflect = new ReflectStructCodec(sc);
+      StructCodec current = manager.getStructClass(o.getClass(), true).getCodec();
+
+      byte[] compiled = new byte[sc.getSize()];
+      sc.getCodec().encode(o, compiled, 0);
+      byte[] reflected = new byte[sc.getSize()];
+      reflect.encode(o, reflected, 0);
+      assertArrayEquals(reflected, compiled);
+      byte[] data = manager.toBytes(o);
+      assertArrayEquals(reflected, data);
+
+      Object o1 = sc.getInstantiator().create(sc.getType());
+      sc.getCodec().decode(o1, compiled, 0, compiled.length);
+      Object o2 = sc.getInstantiator().create(sc.getType());
+      reflect.decode(o2, reflected, 0, reflected.length);
+      Object o3 = manager.parseObject(o.getClass(), data);
+      assertEquals(JSON.toJSONString(o2), JSON.toJSONString(o1));
+      assertEquals(JSON.toJSONString(o2), JSON.toJSONString(o3));
+      assertEquals(JSON.toJSONString(o), JSON.toJSONString(o1));
+    }
+  }
+
+  /**
+   * 编译期生成的编解码器
+   */
+  @Test
+  public void testEncodeInto() {
+    for (Object o : new Object[]{newPerson(), newLeadWave(), new Primitives()}) {
+      byte[] expect = manager.toBytes(o);
+      for (StructClass sc : new StructClass[]{resolve(o.getClass()), manager.getStructClass(o.getClass(), true)}) {
+        // 写入数组的指定位置，前后的数据不受影响
+        byte[] dest = new byte[expect.length + 10];
+        Arrays.fill(dest, (byte) 0x7F);
+        assertEquals(expect.length, sc.toBytes(o, dest, 3));
+        assertArrayEquals(expect, Arrays.copyOfRange(dest, 3, 3 + expect.length));
+        assertEquals(0x7F, dest[2]);
+        assertEquals(0x7F, dest[3 + expect.length]);
+
+        for (ByteBuffer buf : new ByteBuffer[]{
+            ByteBuffer.allocate(expect.length + 10),
+            ByteBuffer.allocateDirect(expect.length + 10).order(ByteOrder.LITTLE_ENDIAN)}) {
+          while (buf.hasRemaining()) {
+            buf.put((byte) 0x7F);
+          }
+          buf.position(5);
+          assertEquals(expect.length, sc.encode(o, buf));
+          assertEquals(5 + expect.length, buf.position());
+          byte[] actual = new byte[expect.length];
+          buf.position(5);
+          buf.get(actual);
+          assertArrayEquals(expect, actual);
+        }
+      }
+    }
+    try {
+      manager.toBytes(newPerson(), new byte[10], 0);
+      fail();
+    } catch (IllegalArgumentException ignore) {
+    }
+  }
+
+  @Test
+  public void testDecodeFrom() {
+    for (Object o : new Object[]{newPerson(), newLeadWave()}) {
+      String expect = JSON.toJSONString(o);
+      byte[] data = manager.toBytes(o);
+      byte[] packet = new byte[data.length * 2 + 7];
+      System.arraycopy(data, 0, packet, 7, data.length);
+      System.arraycopy(data, 0, packet, 7 + data.length, data.length);
+      for (StructClass sc : new StructClass[]{resolve(o.getClass()), manager.getStructClass(o.getClass(), true)}) {
+        assertEquals(expect, JSON.toJSONString(sc.parseObject(packet, 7 + data.length, data.length)));
+
+        for (ByteBuffer buf : new ByteBuffer[]{
+            ByteBuffer.allocate(packet.length).order(ByteOrder.LITTLE_ENDIAN),
+            ByteBuffer.allocateDirect(packet.length),
+            ByteBuffer.allocateDirect(packet.length).order(ByteOrder.LITTLE_ENDIAN)}) {
+          buf.put(packet).position(7);
+          assertEquals(expect, JSON.toJSONString(sc.parseObject(buf)));
+          assertEquals(expect, JSON.toJSONString(sc.parseObject(buf)));
+          assertFalse(buf.hasRemaining());
+          // 切片后的缓冲
+          buf.position(7 + data.length);
+          assertEquals(expect, JSON.toJSONString(sc.parseObject(buf.slice(), 0)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testGeneratedCodec() {
+    StructClass sc = manager.getStructClass(LeadWave.class, true);
+    assertTrue(sc.getCodec() instanceof GeneratedStructCodec);
+    assertEquals(406, sc.getSize());
+    // 使用了自定义转换器，不生成
+    assertNull(manager.findGeneratedCodec(Person.class));
+  }
+
+  /**
+   * 基本数据类型和字节顺序
+   */
+  @Test
+  public void testPrimitives() {
+    Primitives p = new Primitives();
+    p.setB((byte) -5);
+    p.setS((short) 0x1234);
+    p.setI(-0x123456);
+    p.setI3(0x123456);
+    p.setL(0x0102030405060708L);
+    p.setF(3.5f);
+    p.setD(-1.25);
+    p.setShorts(new short[]{1, -2, 3});
+    p.setInts(new int[]{-1, 0x7F000001});
+    p.setLongs(new long[]{Long.MIN_VALUE, 42});
+    p.setFloats(new float[]{0.5f, -8f});
+    p.setDoubles(new double[]{Math.PI, Math.E});
+
+    byte[] data = manager.toBytes(p);
+    StructClass sc = resolve(Primitives.class);
+    byte[] reflected = new byte[sc.getSize()];
+    new ReflectStructCodec(sc).encode(p, reflected, 0);
+    assertArrayEquals(reflected, data);
+    assertEquals("FB3412EDCBAA563412", binary.bytesToHex(data).substring(0, 18));
+
+    Primitives copy = manager.parseObject(Primitives.class, data);
+    assertEquals(JSON.toJSONString(p), JSON.toJSONString(copy));
+    // 转换器批量解析数组
+    StructPlan plan = sc.getPlan();
+    for (String name : new String[]{"shorts", "ints", "longs", "floats", "doubles"}) {
+      StructField field = plan.field(plan.indexOf(name));
+      Object array = field.getConverter().parse(field, data, field.getOffset());
+      assertEquals(JSON.toJSONString(field.getAccessor().get(p)), JSON.toJSONString(array));
+    }
+    Primitives reflectCopy = new Primitives();
+    new ReflectStructCodec(sc).decode(reflectCopy, data, 0, data.length);
+    assertEquals(JSON.toJSONString(p), JSON.toJSONString(reflectCopy));
+  }
+
+  /**
+   * 元素长度等于类型长度的数组通过视图缓冲批量编解码，数组和缓冲的结果一致
+   */
+  @Test
+  public void testBulkArray() {
+    LeadWave lw = newLeadWave();
+    StructClass sc = resolve(LeadWave.class);
+    StructPlan plan = sc.getPlan();
+    StructField wave = plan.field(plan.indexOf("wave"));
+    FieldCodec codec = FieldCodecs.create(wave);
+    assertTrue(codec instanceof FieldCodecs.ShortArrayField);
+    byte[] data = new byte[wave.size() + 3];
+    codec.encode(lw, data, 3);
+    for (int i = 0; i < lw.getWave().length; i++) {
+      assertEquals(lw.getWave()[i], binary.readShort(data, 3 + i * 2, 2, ByteOrder.BIG_ENDIAN, true));
+    }
+    assertArrayEquals(lw.getWave(), (short[]) codec.read(data, 3));
+
+    Primitives p = new Primitives();
+    p.setShorts(new short[]{1, -2, 3});
+    p.setInts(new int[]{-1, 0x7F000001});
+    p.setLongs(new long[]{Long.MIN_VALUE, 42});
+    p.setFloats(new float[]{0.5f, -8f});
+    p.setDoubles(new double[]{Math.PI, Math.E});
+    StructClass primitives = resolve(Primitives.class);
+    byte[] reflected = new byte[primitives.getSize()];
+    new ReflectStructCodec(primitives).encode(p, reflected, 0);
+    byte[] heap = new byte[primitives.getSize() + 3];
+    primitives.getCodec().encode(p, heap, 3);
+    assertArrayEquals(reflected, Arrays.copyOfRange(heap, 3, heap.length));
+    for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      ByteBuffer direct = ByteBuffer.allocateDirect(primitives.getSize() + 5).order(order);
+      primitives.getCodec().encode(p, direct, 5, primitives.getSize());
+      byte[] bytes = new byte[primitives.getSize()];
+      ByteBuffer dup = direct.duplicate();
+      dup.position(5);
+      dup.get(bytes);
+      assertArrayEquals(reflected, bytes);
+      Primitives copy = new Primitives();
+      primitives.getCodec().decode(copy, direct, 5, primitives.getSize());
+      assertEquals(JSON.toJSONString(p), JSON.toJSONString(copy));
+    }
+    Primitives copy = new Primitives();
+    primitives.getCodec().decode(copy, heap, 3, primitives.getSize());
+    assertEquals(JSON.toJSONString(p), JSON.toJSONString(copy));
+  }
+
+  /**
+   * 执行计划
+   */
+  @Test
+  public void testPlan() {
+    StructPlan plan = resolve(Person.class).getPlan();
+    assertEquals(7, plan.length());
+    assertArrayEquals(new int[]{0, 10, 11, 27, 427, 435, 439}
+        , java.util.stream.IntStream.range(0, plan.length()).map(plan::offset).toArray());
+    assertEquals(460, plan.getSize());
+    int v5 = plan.indexOf("V5");
+    assertEquals(plan.offset(v5) + plan.size(v5), plan.limit(v5));
+    assertEquals(-1, plan.indexOf("notExist"));
+  }
+
+  /**
+   * 字段访问器
+   */
+  @Test
+  public void testFieldAccessor() throws Exception {
+    LeadWave lw = newLeadWave();
+    FieldAccessor time = FieldAccessor.newAccessor(LeadWave.class.getDeclaredField("time"));
+    assertEquals(0x603DCD82L, time.getLong(lw));
+    time.setLong(lw, 12L);
+    assertEquals(12L, lw.getTime());
+    assertEquals(12L, time.get(lw));
+    time.set(lw, 13L);
+    assertEquals(13L, lw.getTime());
+
+    FieldAccessor wave = FieldAccessor.newAccessor(LeadWave.class.getDeclaredField("wave"));
+    assertSame(lw.getWave(), wave.get(lw));
+    try {
+      time.getInt(lw);
+      fail();
+    } catch (RuntimeException ignore) {/* ~ */}
+  }
+
+  /**
+   * 编解码耗时对比
+   */
+  @Test
+  public void testBenchmark() {
+    StructClass sc = resolve(LeadWave.class);
+    ReflectStructCodec reflect = new ReflectStructCodec(sc);
+    StructCodec compiled = sc.getCodec();
+    StructCodec generated = manager.getStructClass(LeadWave.class, true).getCodec();
+    LeadWave lw = newLeadWave();
+    byte[] data = new byte[sc.getSize()];
+    int count = 20000;
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        reflect.encode(lw, data, 0);
+        reflect.decode(new LeadWave(), data, 0, data.length);
+      }
+      long reflectTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        compiled.encode(lw, data, 0);
+        compiled.decode(new LeadWave(), data, 0, data.length);
+      }
+      long compiledTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        generated.encode(lw, data, 0);
+        generated.decode(new LeadWave(), data, 0, data.length);
+      }
+      long generatedTime = System.nanoTime() - start;
+      System.err.println(String.format("LeadWave编解码(ns/op): reflect=%d, compiled=%d, generated=%d"
+          , reflectTime / count, compiledTime / count, generatedTime / count));
+    }
+  }
+
+  @Test
+  public void testBatch() {
+    List<LeadWave> leads = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      LeadWave lw = newLeadWave();
+      lw.setTime(i);
+      leads.add(lw);
+    }
+    int size = manager.getStructClass(LeadWave.class, true).getSize();
+    byte[] frame = new byte[size * 12 + 3];
+    assertEquals(size * 12, manager.toBytes(leads, frame, 3));
+    assertArrayEquals(manager.toBytes(leads.get(5)), Arrays.copyOfRange(frame, 3 + size * 5, 3 + size * 6));
+
+    List<LeadWave> parsed = manager.parseArray(LeadWave.class, frame, 3, 12);
+    assertEquals(JSON.toJSONString(leads), JSON.toJSONString(parsed));
+    List<Object> into = new ArrayList<>();
+    assertEquals(2, manager.parseInto(LeadWave.class, frame, 3 + size * 10, 2, into));
+    assertEquals(JSON.toJSONString(leads.subList(10, 12)), JSON.toJSONString(into));
+    try {
+      manager.parseArray(LeadWave.class, frame, 4, 12);
+      fail();
+    } catch (IllegalArgumentException ignore) {
+    }
+
+    // 批量接口与逐个调用的对比
+    int count = 2000;
+    byte[] single = new byte[frame.length];
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int n = 0; n < count; n++) {
+        int offset = 3;
+        for (LeadWave lw : leads) {
+          byte[] data = manager.toBytes(lw);
+          System.arraycopy(data, 0, single, offset, data.length);
+          offset += data.length;
+        }
+        for (int i = 0; i < 12; i++) {
+          manager.parseObject(LeadWave.class, single, 3 + i * size);
+        }
+      }
+      long singleTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int n = 0; n < count; n++) {
+        manager.toBytes(leads, frame, 3);
+        manager.parseArray(LeadWave.class, frame, 3, 12);
+      }
+      long batchTime = System.nanoTime() - start;
+      System.err.println(String.format("12导联批量编解码(ns/op): single=%d, batch=%d"
+          , singleTime / count, batchTime / count));
+    }
+  }
+
+  @Test
+  public void testView() {
+    LeadWave lw = newLeadWave();
+    int size = manager.getStructClass(LeadWave.class, true).getSize();
+    byte[] data = new byte[size * 3];
+    for (int i = 0; i < 3; i++) {
+      lw.setTime(100 + i);
+      manager.toBytes(lw, data, i * size);
+    }
+    LeadWaveView view = manager.view(LeadWave.class, LeadWaveView.class);
+    for (int i = 0; i < 3; i++) {
+      assertSame(view, view.wrap(data, i * size));
+      assertEquals(100 + i, view.getTime());
+      assertArrayEquals(lw.getState(), view.getState());
+      assertArrayEquals(lw.getWave(), view.getWave());
+    }
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    direct.put(data);
+    assertEquals(101, view.wrap(direct, size).getTime());
+    assertEquals(size, view.offset());
+    assertArrayEquals(lw.getWave(), view.getWave(new short[lw.getWave().length]));
+  }
+
+  @Test
+  public void testGeneratedView() {
+    LeadWave lw = newLeadWave();
+    int size = manager.getStructClass(LeadWave.class, true).getSize();
+    byte[] data = new byte[size * 3];
+    for (int i = 0; i < 3; i++) {
+      lw.setTime(100 + i);
+      manager.toBytes(lw, data, i * size);
+    }
+    LeadWaveView view = manager.view(LeadWave.class, LeadWaveView.class);
+    assertFalse(Proxy.isProxyClass(view.getClass()));
+    // 动态代理与生成的实现结果一致
+    LeadWaveView proxy = StructViews.create(manager.getPlannedStructClass(LeadWave.class), LeadWaveView.class, false);
+    // 生成编解码器的结构体只反射解析一次字段
+    assertSame(manager.getPlannedStructClass(LeadWave.class), manager.getPlannedStructClass(LeadWave.class));
+    assertTrue(Proxy.isProxyClass(proxy.getClass()));
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    direct.put(data);
+    short[] wave = new short[lw.getWave().length];
+    for (LeadWaveView v : new LeadWaveView[]{view, proxy}) {
+      for (int i = 0; i < 3; i++) {
+        assertEquals(100 + i, v.wrap(data, i * size).getTime());
+        assertArrayEquals(lw.getState(), v.getState());
+        assertSame(wave, v.getWave(wave));
+        assertArrayEquals(lw.getWave(), wave);
+        assertEquals(100 + i, v.wrap(direct, i * size).getTime());
+        assertArrayEquals(lw.getWave(), v.getWave());
+      }
+      try {
+        v.getWave(new short[1]);
+        fail();
+      } catch (IllegalArgumentException ignore) {
+      }
+    }
+
+    // 重复调用 getter 不分配内存
+    java.lang.management.ThreadMXBean mx = java.lang.management.ManagementFactory.getThreadMXBean();
+    if (mx instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean tmx = (com.sun.management.ThreadMXBean) mx;
+      long id = Thread.currentThread().getId();
+      long sum = 0;
+      for (int n = 0; n < 2; n++) {
+        long start = tmx.getThreadAllocatedBytes(id);
+        for (int r = 0; r < 100_000; r++) {
+          view.wrap(data, (r % 3) * size);
+          sum += view.getTime() + view.getWave(wave)[r % wave.length];
+        }
+        if (n == 1) {
+          long allocated = tmx.getThreadAllocatedBytes(id) - start;
+          assertTrue("allocated: " + allocated, allocated < 1024);
+        }
+      }
+      assertTrue(sum != 0);
+    }
+  }
+
+  @Test
+  public void testProjection() {
+    Person person = newPerson();
+    byte[] data = manager.toBytes(person);
+    StructClass projection = manager.projection(Person.class, "createTime", "time");
+    assertEquals(2, projection.getPlan().length());
+    assertEquals(manager.getStructClass(Person.class, true).getSize(), projection.getSize());
+
+    Person p = projection.parseObject(data, 0);
+    assertEquals(person.getTime(), p.getTime());
+    assertEquals(person.getCreateTime().getTime() / 1000, p.getCreateTime().getTime() / 1000);
+    assertNull(p.getName());
+    assertNull(p.getV5());
+    assertNull(p.getHello());
+
+    List<Person> list = projection.parseArray(data, 0, 1);
+    assertEquals(person.getTime(), list.get(0).getTime());
+    try {
+      manager.projection(Person.class, "notExist");
+      fail();
+    } catch (IllegalArgumentException ignore) {
+    }
+  }
+
+  @Test
+  public void testParseInto() {
+    LeadWave lw = newLeadWave();
+    byte[] data = new byte[manager.getStructClass(LeadWave.class, true).getSize() + 4];
+    manager.toBytes(lw, data, 4);
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    direct.put(data);
+    for (StructClass sc : new StructClass[]{resolve(LeadWave.class), manager.getStructClass(LeadWave.class, true)}) {
+      LeadWave target = new LeadWave();
+      assertSame(target, sc.parseInto(target, data, 4));
+      assertEquals(JSON.toJSONString(lw), JSON.toJSONString(target));
+      short[] wave = target.getWave();
+      byte[] state = target.getState();
+
+      target.setTime(0);
+      Arrays.fill(wave, (short) 0);
+      sc.parseInto(target, data, 4);
+      assertSame(wave, target.getWave());
+      assertSame(state, target.getState());
+      assertEquals(JSON.toJSONString(lw), JSON.toJSONString(target));
+
+      Arrays.fill(wave, (short) 0);
+      sc.parseInto(target, direct, 4);
+      assertSame(wave, target.getWave());
+      assertEquals(JSON.toJSONString(lw), JSON.toJSONString(target));
+
+      // 长度不一致时重新创建数组
+      target.setWave(new short[3]);
+      manager.parseInto(target, data, 4);
+      assertEquals(200, target.getWave().length);
+    }
+
+    // 开始位置越界
+    StructClass sc = manager.getStructClass(LeadWave.class, true);
+    assertEquals(lw.getTime(), sc.<LeadWave>parseObject(data, 4).getTime());
+    for (int start : new int[]{-1, data.length + 1}) {
+      try {
+        sc.parseObject(data, start);
+        fail();
+      } catch (IndexOutOfBoundsException e) {
+        // 解码前检查，不是字段读取时的数组越界
+        assertEquals(IndexOutOfBoundsException.class, e.getClass());
+      }
+    }
+  }
+
+  @Test
+  public void testBinaryOffset() {
+    byte[] buf = new byte[12];
+    binary.writeInt(buf, 1, 3, -0x123456, ByteOrder.BIG_ENDIAN);
+    assertEquals("00EDCBAA", binary.bytesToHex(buf).substring(0, 8));
+    assertEquals(-0x123456, binary.readInt(buf, 1, 3, ByteOrder.BIG_ENDIAN, true));
+    assertEquals(0xEDCBAA, binary.readInt(buf, 1, 3, ByteOrder.BIG_ENDIAN, false));
+
+    binary.writeShort(buf, 4, 2, (short) 0x1234, ByteOrder.LITTLE_ENDIAN);
+    assertEquals("3412", binary.bytesToHex(buf).substring(8, 12));
+    assertEquals(0x1234, binary.readShort(buf, 4, 2, ByteOrder.LITTLE_ENDIAN, true));
+    assertEquals(binary.bytesToShort(new byte[]{0x34, 0x12}, ByteOrder.LITTLE_ENDIAN, true)
+        , binary.readShort(buf, 4, 2, ByteOrder.LITTLE_ENDIAN, true));
+
+    binary.writeLong(buf, 4, 8, Long.MIN_VALUE + 1, ByteOrder.LITTLE_ENDIAN);
+    assertEquals(Long.MIN_VALUE + 1, binary.readLong(buf, 4, 8, ByteOrder.LITTLE_ENDIAN, false));
+    assertArrayEquals(binary.longToBytes(Long.MIN_VALUE + 1, ByteOrder.LITTLE_ENDIAN), Arrays.copyOfRange(buf, 4, 12));
+    for (int v : new int[]{0, 1, -1, 127, -128, 0x7FFF, -0x8000}) {
+      binary.writeInt(buf, 0, 2, v, ByteOrder.BIG_ENDIAN);
+      assertEquals(binary.bytesToInt(Arrays.copyOf(buf, 2), ByteOrder.BIG_ENDIAN, true)
+          , binary.readInt(buf, 0, 2, ByteOrder.BIG_ENDIAN, true));
+    }
+
+    // 超过8个字节：写入时扩展符号，读取时保留低8个字节
+    byte[] wide = new byte[12];
+    binary.writeLong(wide, 1, 10, -0x123456789AL, ByteOrder.BIG_ENDIAN);
+    assertEquals("00FFFFFFFFFFEDCBA9876600", binary.bytesToHex(wide));
+    assertEquals(-0x123456789AL, binary.readLong(wide, 1, 10, ByteOrder.BIG_ENDIAN, true));
+    binary.writeLong(wide, 1, 10, 0x0102030405060708L, ByteOrder.LITTLE_ENDIAN);
+    assertEquals("000807060504030201000000", binary.bytesToHex(wide));
+    assertEquals(0x0102030405060708L, binary.readLong(wide, 1, 10, ByteOrder.LITTLE_ENDIAN, false));
+    // 长度为0时不读写
+    binary.writeLong(wide, 1, 0, -1L, ByteOrder.BIG_ENDIAN);
+    assertEquals("000807060504030201000000", binary.bytesToHex(wide));
+    assertEquals(0, binary.readLong(wide, 1, 0, ByteOrder.BIG_ENDIAN, true));
+  }
+
+  @Test
+  public void testHex() {
+    byte[] buf = new byte[6];
+    assertEquals(2, HexCodec.decode("0aFf7", buf, 2));
+    assertEquals("00000AFF0000", binary.bytesToHex(buf));
+    assertEquals("0aff", HexCodec.toHex(buf, 2, 2, true));
+    StringBuilder sb = new StringBuilder("0x");
+    HexCodec.encode(buf, 2, 2, sb, false);
+    assertEquals("0x0AFF", sb.toString());
+    char[] chars = new char[6];
+    assertEquals(4, HexCodec.encode(buf, 2, 2, chars, 1, false));
+    assertEquals("0AFF", new String(chars, 1, 4));
+    assertArrayEquals(new byte[]{0x12, (byte) 0xAB}, Arrays.copyOf(binary.hexToBytes("12ab"), 2));
+
+    // 16进制字段：长的取后面的部分，短的后面补0
+    StructClass sc = resolve(Person.class);
+    StructField hex = sc.getPlan().field(sc.getPlan().indexOf("hex"));
+    byte[] data = new byte[hex.size()];
+    hex.getConverter().write(hex, "FF" + binary.bytesToHex(new byte[16]), data, 0);
+    assertArrayEquals(new byte[16], data);
+    hex.getConverter().write(hex, "ABCD", data, 0);
+    assertEquals("ABCD" + binary.bytesToHex(new byte[14]), hex.getConverter().parse(hex, data, 0));
+  }
+
+  @Test
+  public void testString() {
+    Charset gbk = Charset.forName("GBK");
+    for (Charset cs : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.US_ASCII
+        , StandardCharsets.ISO_8859_1, gbk, StandardCharsets.UTF_16LE}) {
+      for (String str : new String[]{"hello", " 前后空白 ", "", "中文abc"}) {
+        byte[] data = new byte[24];
+        Arrays.fill(data, (byte) 0x7F);
+        StringCodec.encode(str, cs, data, 2, 20);
+        assertEquals(0x7F, data[1]);
+        assertEquals(0x7F, data[22]);
+        byte[] expect = Arrays.copyOf(str.getBytes(cs), 20);
+        assertArrayEquals(expect, Arrays.copyOfRange(data, 2, 22));
+        assertEquals(new String(expect, cs).trim(), StringCodec.decode(data, 2, 20, cs));
+      }
+    }
+    // 截断时不拆分多字节字符
+    byte[] data = new byte[4];
+    assertEquals(3, StringCodec.encode("中文", StandardCharsets.UTF_8, data, 0, 4));
+    assertEquals("中", StringCodec.decode(data, 0, 4, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testInstantiator() {
+    assertTrue(resolve(Person.class).getInstantiator() instanceof ConstructorInstantiator);
+
+    ConstructorInstantiator ci = new ConstructorInstantiator();
+    assertTrue(ci.create(LeadWave.class) instanceof LeadWave);
+    assertTrue(ci.create(Hidden.class) instanceof Hidden);
+    try {
+      ci.create(Integer.class);
+      fail();
+    } catch (IllegalStateException ignore) {
+    }
+
+    PooledInstantiator pool = new PooledInstantiator(ci, 1);
+    Object o = pool.create(LeadWave.class);
+    assertTrue(pool.release(o));
+    assertFalse(pool.release(new LeadWave()));
+    assertSame(o, pool.create(LeadWave.class));
+    assertNotSame(o, pool.create(LeadWave.class));
+
+    Instantiator di = new DefaultInstantiator();
+    int count = 1000000;
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        di.create(LeadWave.class);
+      }
+      long defaultTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        ci.create(LeadWave.class);
+      }
+      long constructorTime = System.nanoTime() - start;
+      System.err.println(String.format("实例化(ns/op): newInstance=%d, constructor=%d"
+          , defaultTime / count, constructorTime / count));
+    }
+  }
+
+  @Test
+  public void testNested() {
+    WaveFrame frame = new WaveFrame();
+    FrameHeader header = new FrameHeader();
+    header.setSn(0x01020304);
+    header.setType((byte) 7);
+    frame.setHeader(header);
+    LeadWave[] leads = new LeadWave[12];
+    for (int i = 0; i < leads.length; i++) {
+      leads[i] = newLeadWave();
+      leads[i].setTime(i);
+    }
+    leads[5] = null;
+    frame.setLeads(leads);
+
+    StructClass structClass = manager.getStructClass(WaveFrame.class, true);
+    int leadSize = manager.getStructClass(LeadWave.class, true).getSize();
+    assertEquals(5 + 12 * leadSize, structClass.getSize());
+
+    byte[] data = manager.toBytes(frame);
+    assertArrayEquals(manager.toBytes(header), Arrays.copyOfRange(data, 0, 5));
+    assertArrayEquals(manager.toBytes(leads[3]), Arrays.copyOfRange(data, 5 + 3 * leadSize, 5 + 4 * leadSize));
+    assertArrayEquals(new byte[leadSize], Arrays.copyOfRange(data, 5 + 5 * leadSize, 5 + 6 * leadSize));
+
+    WaveFrame parsed = manager.parseObject(WaveFrame.class, data);
+    assertEquals(header.getSn(), parsed.getHeader().getSn());
+    assertEquals(header.getType(), parsed.getHeader().getType());
+    assertEquals(12, parsed.getLeads().length);
+    assertEquals(3, parsed.getLeads()[3].getTime());
+    assertArrayEquals(leads[11].getWave(), parsed.getLeads()[11].getWave());
+    assertArrayEquals(data, manager.toBytes(parsed));
+
+    // 复用已有的嵌套对象
+    LeadWave reused = parsed.getLeads()[2];
+    short[] wave = reused.getWave();
+    manager.parseInto(parsed, ByteBuffer.wrap(data), 0);
+    assertSame(reused, parsed.getLeads()[2]);
+    assertSame(wave, parsed.getLeads()[2].getWave());
+
+    // 直接缓冲和反射的编解码结果一致
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    direct.put(data).flip();
+    WaveFrame fromDirect = manager.parseObject(WaveFrame.class, direct);
+    assertArrayEquals(data, manager.toBytes(fromDirect));
+    StructClass reflect = resolve(WaveFrame.class);
+    WaveFrame fromReflect = new WaveFrame();
+    new ReflectStructCodec(reflect).decode(fromReflect, data, 0, data.length);
+    byte[] reflectBytes = new byte[data.length];
+    new ReflectStructCodec(reflect).encode(fromReflect, reflectBytes, 0);
+    assertArrayEquals(data, reflectBytes);
+  }
+
+  @Test
+  public void testVariable() {
+    Telemetry t = new Telemetry();
+    t.setId(0x1234);
+    t.setSamples(new short[]{1, -2, 3});
+    t.setName("温度");
+    t.setCrc(0xCAFEBABE);
+
+    StructClass structClass = manager.getStructClass(Telemetry.class, true);
+    assertFalse(structClass.isFixedSize());
+    assertEquals(2 + 1 + 1 + 4, structClass.getSize());
+    assertEquals(2 + 1 + 3 * 2 + 1 + 6 + 4, manager.sizeOf(t));
+
+    byte[] data = manager.toBytes(t);
+    assertEquals(manager.sizeOf(t), data.length);
+    // 长度字段写入实际的数量
+    assertEquals(3, data[2]);
+    assertEquals(6, data[9]);
+
+    Telemetry parsed = manager.parseObject(Telemetry.class, data);
+    assertEquals(0x1234, parsed.getId());
+    assertEquals(3, parsed.getCount());
+    assertArrayEquals(t.getSamples(), parsed.getSamples());
+    assertEquals("温度", parsed.getName());
+    assertEquals(0xCAFEBABE, parsed.getCrc());
+
+    // 连续的变长记录
+    Telemetry empty = new Telemetry();
+    byte[] batch = new byte[data.length * 2 + structClass.sizeOf(empty)];
+    int size = structClass.toBytes(Arrays.asList(t, empty, t), batch, 0);
+    assertEquals(batch.length, size);
+    List<Telemetry> list = structClass.parseArray(batch, 0, 3);
+    assertEquals(0, list.get(1).getSamples().length);
+    assertEquals("", list.get(1).getName());
+    assertEquals(0xCAFEBABE, list.get(2).getCrc());
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(batch.length);
+    direct.put(batch).flip();
+    Telemetry first = structClass.parseObject(direct);
+    assertEquals(data.length, direct.position());
+    structClass.parseObject(direct);
+    Telemetry third = structClass.parseObject(direct);
+    assertFalse(direct.hasRemaining());
+    assertArrayEquals(first.getSamples(), third.getSamples());
+    assertEquals(data.length, structClass.sizeOf(batch, batch.length - data.length, data.length));
+
+    // 复用长度一致的数组
+    short[] samples = parsed.getSamples();
+    manager.parseInto(parsed, data, 0);
+    assertSame(samples, parsed.getSamples());
+
+    try {
+      structClass.sizeOf(data, 0, data.length - 1);
+      fail();
+    } catch (IllegalArgumentException ignore) {
+    }
+    try {
+      t.setSamples(new short[101]);
+      manager.toBytes(t);
+      fail();
+    } catch (IllegalStateException ignore) {
+    }
+    try {
+      structClass.projection("id");
+      fail();
+    } catch (IllegalStateException ignore) {
+    }
+  }
+
+  @Test
+  public void testBitField() {
+    DeviceStatus status = new DeviceStatus();
+    status.setLeadOffRA(true);
+    status.setLeadOffLL(true);
+    status.setMode(5);
+    status.setCharging(true);
+    status.setVoltage(0xABC);
+    status.setLevel((byte) 9);
+    status.setSignal((byte) 0x7F);
+
+    StructClass structClass = manager.getStructClass(DeviceStatus.class, true);
+    assertEquals(4, structClass.getSize());
+    byte[] data = manager.toBytes(status);
+    assertArrayEquals(new byte[]{(byte) 0xD5, (byte) 0xBC, (byte) 0x9A, 0x7F}, data);
+
+    DeviceStatus parsed = manager.parseObject(DeviceStatus.class, data);
+    assertTrue(parsed.isLeadOffRA());
+    assertFalse(parsed.isLeadOffLA());
+    assertTrue(parsed.isLeadOffLL());
+    assertEquals(5, parsed.getMode());
+    assertTrue(parsed.isCharging());
+    assertEquals(0xABC, parsed.getVoltage());
+    assertEquals(9, parsed.getLevel());
+    assertEquals(0x7F, parsed.getSignal());
+
+    // 超出位数的部分被截断，不影响其他成员
+    status.setMode(0xFF);
+    assertEquals((byte) 0xF5, manager.toBytes(status)[0]);
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(4);
+    manager.encode(parsed, direct);
+    direct.flip();
+    DeviceStatus fromDirect = manager.parseObject(DeviceStatus.class, direct);
+    assertEquals(0xABC, fromDirect.getVoltage());
+    assertEquals(5, fromDirect.getMode());
+
+    StructClass projection = manager.projection(DeviceStatus.class, "mode", "level");
+    DeviceStatus p = projection.parseObject(data, 0);
+    assertEquals(5, p.getMode());
+    assertEquals(9, p.getLevel());
+    assertFalse(p.isCharging());
+  }
+
+  @Test
+  public void testNestedBitField() {
+    DeviceStatus status = new DeviceStatus();
+    status.setLeadOffRA(true);
+    status.setLeadOffLL(true);
+    status.setMode(5);
+    status.setCharging(true);
+    status.setVoltage(0xABC);
+    status.setLevel((byte) 9);
+    status.setSignal((byte) 0x7F);
+    StatusFrame frame = new StatusFrame();
+    frame.setId((short) 7);
+    frame.setStatus(status);
+    frame.setHistory(new DeviceStatus[]{manager.parseObject(DeviceStatus.class, manager.toBytes(status)), new DeviceStatus()});
+
+    // 嵌套结构体的位域单元与单独编码的结果一致
+    byte[] data = manager.toBytes(frame);
+    assertEquals("0007" + "D5BC9A7F" + "D5BC9A7F" + "00000000", binary.bytesToHex(data));
+    StatusFrame parsed = manager.parseObject(StatusFrame.class, data);
+    assertEquals(JSON.toJSONString(frame), JSON.toJSONString(parsed));
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    manager.encode(frame, direct);
+    direct.flip();
+    assertEquals(JSON.toJSONString(frame), JSON.toJSONString(manager.parseObject(StatusFrame.class, direct)));
+  }
+
+  @Test
+  public void testUnsigned() {
+    UnsignedSample sample = new UnsignedSample();
+    sample.setFlags((short) 200);
+    sample.setCounter(0xFEDC);
+    sample.setTime(0xF0000001L);
+    sample.setSamples(new int[]{0, 1, 0x8000, 0xFFFF});
+    sample.setStamps(new long[]{0xFFFFFFFFL, 0x80000000L});
+    sample.setDeltas(new int[]{-2, 0x7FFF});
+
+    StructClass sc = resolve(UnsignedSample.class);
+    assertTrue(sc.getCodec() instanceof CompiledStructCodec);
+    assertEquals(27, sc.getSize());
+    byte[] data = manager.toBytes(sample);
+    assertEquals("C8FEDCF0000001000001000080FFFFFFFFFFFF80000000FFFE7FFF", binary.bytesToHex(data));
+    // 编译期生成、运行时编译和反射(转换器)的结果一致
+    assertTrue(manager.getStructClass(UnsignedSample.class, true).getCodec() instanceof GeneratedStructCodec);
+    String expected = JSON.toJSONString(sample);
+    assertEquals(expected, JSON.toJSONString(manager.parseObject(UnsignedSample.class, data)));
+    UnsignedSample compiled = new UnsignedSample();
+    sc.getCodec().decode(compiled, data, 0, data.length);
+    assertEquals(expected, JSON.toJSONString(compiled));
+    UnsignedSample reflected = new UnsignedSample();
+    new ReflectStructCodec(sc).decode(reflected, data, 0, data.length);
+    assertEquals(expected, JSON.toJSONString(reflected));
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length).order(ByteOrder.LITTLE_ENDIAN);
+    sc.getCodec().encode(sample, direct, 0, data.length);
+    UnsignedSample fromDirect = new UnsignedSample();
+    sc.getCodec().decode(fromDirect, direct, 0, data.length);
+    assertEquals(expected, JSON.toJSONString(fromDirect));
+  }
+
+  @Test
+  public void testOddWidth() {
+    AdcFrame frame = new AdcFrame();
+    frame.setSamples(new int[]{-1, 0x7FFFFF, -0x800000, 0x123456});
+    frame.setRaw(new int[]{0xFFFFFF, 0x800000});
+    frame.setOffset(-2);
+    frame.setStamp(0xFFFFFFFFFFFFL);
+    frame.setTotals(new long[]{-0x80000000000000L, 0x01020304050607L});
+
+    StructClass sc = resolve(AdcFrame.class);
+    assertEquals(43, sc.getSize());
+    byte[] data = manager.toBytes(frame);
+    assertEquals("FFFFFF7FFFFF800000123456" + "FFFFFF000080" + "FFFFFFFFFE" + "FFFFFFFFFFFF"
+        + "8000000000000001020304050607", binary.bytesToHex(data));
+    byte[] compiled = new byte[sc.getSize()];
+    sc.getCodec().encode(frame, compiled, 0);
+    assertArrayEquals(data, compiled);
+
+    String expected = JSON.toJSONString(frame);
+    assertEquals(expected, JSON.toJSONString(manager.parseObject(AdcFrame.class, data)));
+    AdcFrame copy = new AdcFrame();
+    sc.getCodec().decode(copy, data, 0, data.length);
+    assertEquals(expected, JSON.toJSONString(copy));
+    AdcFrame reflected = new AdcFrame();
+    new ReflectStructCodec(sc).decode(reflected, data, 0, data.length);
+    assertEquals(expected, JSON.toJSONString(reflected));
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length).order(ByteOrder.LITTLE_ENDIAN);
+    sc.getCodec().encode(frame, direct, 0, data.length);
+    AdcFrame fromDirect = new AdcFrame();
+    sc.getCodec().decode(fromDirect, direct, 0, data.length);
+    assertEquals(expected, JSON.toJSONString(fromDirect));
+
+    // 1~8个字节、两种字节顺序、有无符号与逐字节计算的结果一致
+    Random random = new Random(24);
+    byte[] bytes = new byte[64];
+    long[] longs = new long[8];
+    byte[] written = new byte[bytes.length];
+    for (int round = 0; round < 100; round++) {
+      random.nextBytes(bytes);
+      ByteBuffer buf = ByteBuffer.wrap(bytes).order(round % 2 == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+      for (int width = 1; width <= 8; width++) {
+        for (boolean bigEndian : new boolean[]{true, false}) {
+          for (boolean unsigned : new boolean[]{true, false}) {
+            for (int i = 0; i < longs.length; i++) {
+              long v = readBytes(bytes, i * width, width, bigEndian, unsigned);
+              assertEquals(v, IntegerBytes.getInteger(bytes, i * width, width, bigEndian, unsigned));
+              assertEquals(v, IntegerBytes.getInteger(buf, i * width, width, bigEndian, unsigned));
+            }
+            FieldCodecs.getLongs(bytes, 0, width, bigEndian, unsigned, longs, longs.length);
+            for (int i = 0; i < longs.length; i++) {
+              assertEquals(readBytes(bytes, i * width, width, bigEndian, unsigned), longs[i]);
+            }
+            // 数据正好在末尾结束，批量读取不能越界
+            byte[] exact = Arrays.copyOf(bytes, width * longs.length);
+            ByteBuffer exactBuf = ByteBuffer.allocateDirect(exact.length).order(buf.order());
+            exactBuf.put(exact);
+            long[] tail = new long[longs.length];
+            FieldCodecs.getLongs(exact, 0, width, bigEndian, unsigned, tail, tail.length);
+            assertArrayEquals(longs, tail);
+            FieldCodecs.getLongs(exactBuf, 0, width, bigEndian, unsigned, tail, tail.length);
+            assertArrayEquals(longs, tail);
+            if (width <= 4) {
+              int[] ints = new int[longs.length];
+              FieldCodecs.getInts(exact, 0, width, bigEndian, unsigned, ints, ints.length);
+              for (int i = 0; i < ints.length; i++) {
+                assertEquals((int) longs[i], ints[i]);
+              }
+              FieldCodecs.getInts(exactBuf, 0, width, bigEndian, unsigned, ints, ints.length);
+              for (int i = 0; i < ints.length; i++) {
+                assertEquals((int) longs[i], ints[i]);
+              }
+            }
+            Arrays.fill(written, (byte) 0);
+            FieldCodecs.putLongs(written, 0, width, bigEndian, longs, longs.length);
+            assertArrayEquals(Arrays.copyOf(bytes, width * longs.length), Arrays.copyOf(written, width * longs.length));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * 逐字节读取整数
+   */
+  private static long readBytes(byte[] d, int p, int width, boolean bigEndian, boolean unsigned) {
+    long v = 0;
+    for (int i = 0; i < width; i++) {
+      v = (v << 8) | (d[p + (bigEndian ? i : width - 1 - i)] & 0xFF);
+    }
+    int shift = 64 - width * 8;
+    return unsigned || shift == 0 ? v : (v << shift) >> shift;
+  }
+
+  /**
+   * 24位和48位采样与16位采样的解码耗时
+   */
+  @Test
+  public void testOddWidthBenchmark() {
+    int samples = 1 << 16;
+    byte[] data = new byte[samples * 6];
+    new Random(1).nextBytes(data);
+    short[] shorts = new short[samples];
+    int[] ints = new int[samples];
+    long[] longs = new long[samples];
+    int count = 200;
+    for (int round = 0; round < 5; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        FieldCodecs.getShorts(data, 0, 2, true, false, shorts, samples);
+      }
+      long int16 = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        FieldCodecs.getInts(data, 0, 3, true, false, ints, samples);
+      }
+      long int24 = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        FieldCodecs.getInts(data, 0, 3, false, true, ints, samples);
+      }
+      long uint24 = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        FieldCodecs.getLongs(data, 0, 6, true, false, longs, samples);
+      }
+      long int48 = System.nanoTime() - start;
+      double n = (double) count * samples;
+      System.err.println(String.format("采样解码(ns/sample): int16=%.3f, int24=%.3f, uint24(LE)=%.3f, int48=%.3f, int24/int16=%.1f"
+          , int16 / n, int24 / n, uint24 / n, int48 / n, (double) int24 / int16));
+    }
+    assertEquals(readBytes(data, 3, 3, false, true), ints[1]);
+  }
+
+  private static class Hidden {
+    private Hidden() {
+    }
+  }
+
+}
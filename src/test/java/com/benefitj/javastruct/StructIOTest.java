@@ -0,0 +1,190 @@
+package com.benefitj.javastruct;
+
+import com.benefitj.javastruct.entity.LeadWave;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.*;
+
+public class StructIOTest {
+
+  private JavaStructManager manager = JavaStructManager.INSTANCE;
+
+  /**
+   * 写入 count 条记录，记录的时间为下标
+   */
+  File writeRecords(int count) throws IOException {
+    File file = File.createTempFile("struct", ".bin");
+    file.deleteOnExit();
+    int size = manager.getStructClass(LeadWave.class, true).getSize();
+    byte[] buf = new byte[size * count + 5];
+    LeadWave wave = StructCodecTest.newLeadWave();
+    for (int i = 0; i < count; i++) {
+      wave.setTime(i);
+      manager.toBytes(wave, buf, i * size);
+    }
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      // 末尾不完整的记录
+      out.write(buf);
+    }
+    return file;
+  }
+
+  @Test
+  public void testFileReader() throws IOException {
+    File file = writeRecords(100);
+    StructClass sc = manager.getStructClass(LeadWave.class, true);
+    // 小窗口，覆盖跨窗口的读取
+    try (StructFileReader<LeadWave> reader = new StructFileReader<>(sc, file, sc.getSize() * 3 + 1)) {
+      assertEquals(100, reader.count());
+      assertEquals(57, reader.get(57).getTime());
+      assertEquals(3, reader.get(3).getTime());
+      assertArrayEquals(StructCodecTest.newLeadWave().getWave(), reader.get(99).getWave());
+
+      LeadWave reuse = new LeadWave();
+      Iterator<LeadWave> itr = reader.iterator(reuse);
+      for (int i = 0; i < 100; i++) {
+        LeadWave w = itr.next();
+        assertSame(reuse, w);
+        assertEquals(i, w.getTime());
+      }
+      assertFalse(itr.hasNext());
+      try {
+        reader.get(100);
+        fail();
+      } catch (IndexOutOfBoundsException ignore) {
+      }
+    }
+    try (StructFileReader<LeadWave> reader = manager.newFileReader(LeadWave.class, file)) {
+      long i = 0;
+      for (LeadWave w : reader) {
+        assertEquals(i++, w.getTime());
+      }
+      assertEquals(100, i);
+    }
+  }
+
+  @Test
+  public void testReader() throws IOException {
+    int size = manager.getStructClass(LeadWave.class, true).getSize();
+    byte[] data = Files.readAllBytes(writeRecords(1000).toPath());
+    data = Arrays.copyOf(data, size * 1000);
+
+    // 每次最多返回 100 个字节的输入流，模拟短读
+    int[] reads = {0};
+    InputStream in = new FilterInputStream(new ByteArrayInputStream(data)) {
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        reads[0]++;
+        return super.read(b, off, Math.min(len, 100));
+      }
+    };
+    try (StructReader<LeadWave> reader = manager.newReader(LeadWave.class, in)) {
+      long i = 0;
+      LeadWave w;
+      while ((w = reader.next()) != null) {
+        assertEquals(i++, w.getTime());
+      }
+      assertEquals(1000, i);
+      assertEquals(reads[0], reader.getReads());
+    }
+
+    // 大块读取，读取次数远少于记录数
+    try (StructReader<LeadWave> reader = manager.newReader(LeadWave.class, Channels.newChannel(new ByteArrayInputStream(data)))) {
+      assertEquals(1000, reader.stream().count());
+      assertTrue(reader.getReads() < 20);
+    }
+
+    // 末尾不完整的记录
+    try (StructReader<LeadWave> reader = manager.newReader(LeadWave.class, new ByteArrayInputStream(data, 0, size + 3))) {
+      assertNotNull(reader.next());
+      reader.next();
+      fail();
+    } catch (EOFException ignore) {
+    }
+  }
+
+  @Test
+  public void testNonBlockingChannel() throws IOException {
+    Pipe pipe = Pipe.open();
+    try {
+      pipe.source().configureBlocking(false);
+      try {
+        manager.newReader(LeadWave.class, pipe.source());
+        fail();
+      } catch (IllegalArgumentException ignore) {
+      }
+
+      // 创建后切换为非阻塞模式，没有数据时不空转
+      pipe.source().configureBlocking(true);
+      StructReader<LeadWave> reader = manager.newReader(LeadWave.class, pipe.source());
+      pipe.source().configureBlocking(false);
+      try {
+        reader.next();
+        fail();
+      } catch (IllegalStateException ignore) {
+      }
+    } finally {
+      pipe.sink().close();
+      pipe.source().close();
+    }
+  }
+
+  @Test
+  public void testParallel() throws IOException {
+    byte[] data = Files.readAllBytes(writeRecords(5000).toPath());
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    direct.put(data).flip();
+    for (ByteBuffer buf : new ByteBuffer[]{ByteBuffer.wrap(data), direct}) {
+      List<LeadWave> list = manager.parseAllParallel(LeadWave.class, buf);
+      assertEquals(5000, list.size());
+      for (int i = 0; i < list.size(); i++) {
+        assertEquals(i, list.get(i).getTime());
+      }
+      // 末尾不完整的记录不解析
+      assertEquals(5, buf.remaining());
+
+      buf.rewind();
+      long sum = StreamSupport.stream(manager.spliterator(LeadWave.class, buf), true)
+          .mapToLong(LeadWave::getTime)
+          .sum();
+      assertEquals(4999L * 5000 / 2, sum);
+      assertEquals(0, buf.position());
+    }
+
+    int count = 20;
+    ByteBuffer buf = ByteBuffer.wrap(data);
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int n = 0; n < count; n++) {
+        buf.rewind();
+        manager.parseArray(LeadWave.class, data, 0, 5000);
+      }
+      long serialTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int n = 0; n < count; n++) {
+        buf.rewind();
+        manager.parseAllParallel(LeadWave.class, buf);
+      }
+      long parallelTime = System.nanoTime() - start;
+      System.err.println(String.format("5000条记录解析(us): serial=%d, parallel=%d"
+          , serialTime / count / 1000, parallelTime / count / 1000));
+    }
+  }
+
+}
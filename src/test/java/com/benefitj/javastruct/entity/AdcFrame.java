@@ -0,0 +1,78 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.FieldByteOrder;
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+
+/**
+ * ADC 数据帧：24位采样和 40/48/56 位的计数
+ */
+@JavaStructClass
+public class AdcFrame {
+
+  /**
+   * 采样值，int24
+   */
+  @JavaStructField(size = 3, arrayLength = 4)
+  private int[] samples;
+  /**
+   * 原始值，小端 uint24
+   */
+  @JavaStructField(size = 3, arrayLength = 2, unsigned = true, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private int[] raw;
+  /**
+   * 偏移，int40
+   */
+  @JavaStructField(size = 5)
+  private long offset;
+  /**
+   * 时间戳(毫秒)，小端 uint48
+   */
+  @JavaStructField(size = 6, unsigned = true, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private long stamp;
+  /**
+   * 累计值，int56
+   */
+  @JavaStructField(size = 7, arrayLength = 2)
+  private long[] totals;
+
+  public int[] getSamples() {
+    return samples;
+  }
+
+  public void setSamples(int[] samples) {
+    this.samples = samples;
+  }
+
+  public int[] getRaw() {
+    return raw;
+  }
+
+  public void setRaw(int[] raw) {
+    this.raw = raw;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public void setOffset(long offset) {
+    this.offset = offset;
+  }
+
+  public long getStamp() {
+    return stamp;
+  }
+
+  public void setStamp(long stamp) {
+    this.stamp = stamp;
+  }
+
+  public long[] getTotals() {
+    return totals;
+  }
+
+  public void setTotals(long[] totals) {
+    this.totals = totals;
+  }
+}
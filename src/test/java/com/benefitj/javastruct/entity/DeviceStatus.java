@@ -0,0 +1,117 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.FieldByteOrder;
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+
+/**
+ * 设备状态：导联脱落标志、模式和电量按位保存
+ */
+@JavaStructClass
+public class DeviceStatus {
+
+  /**
+   * RA 导联脱落
+   */
+  @JavaStructField(size = 1, bits = 1)
+  private boolean leadOffRA;
+  /**
+   * LA 导联脱落
+   */
+  @JavaStructField(size = 1, bits = 1)
+  private boolean leadOffLA;
+  /**
+   * LL 导联脱落
+   */
+  @JavaStructField(size = 1, bits = 1)
+  private boolean leadOffLL;
+  /**
+   * 模式，第4~6位
+   */
+  @JavaStructField(size = 1, bits = 3, bitOffset = 4)
+  private int mode;
+  /**
+   * 是否充电，第7位
+   */
+  @JavaStructField(size = 1, bits = 1)
+  private boolean charging;
+  /**
+   * 电压，小端2个字节的低12位
+   */
+  @JavaStructField(size = 2, bits = 12, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private int voltage;
+  /**
+   * 电量等级，小端2个字节的高4位
+   */
+  @JavaStructField(size = 2, bits = 4, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private byte level;
+  /**
+   * 信号强度
+   */
+  @JavaStructField(size = 1)
+  private byte signal;
+
+  public boolean isLeadOffRA() {
+    return leadOffRA;
+  }
+
+  public void setLeadOffRA(boolean leadOffRA) {
+    this.leadOffRA = leadOffRA;
+  }
+
+  public boolean isLeadOffLA() {
+    return leadOffLA;
+  }
+
+  public void setLeadOffLA(boolean leadOffLA) {
+    this.leadOffLA = leadOffLA;
+  }
+
+  public boolean isLeadOffLL() {
+    return leadOffLL;
+  }
+
+  public void setLeadOffLL(boolean leadOffLL) {
+    this.leadOffLL = leadOffLL;
+  }
+
+  public int getMode() {
+    return mode;
+  }
+
+  public void setMode(int mode) {
+    this.mode = mode;
+  }
+
+  public boolean isCharging() {
+    return charging;
+  }
+
+  public void setCharging(boolean charging) {
+    this.charging = charging;
+  }
+
+  public int getVoltage() {
+    return voltage;
+  }
+
+  public void setVoltage(int voltage) {
+    this.voltage = voltage;
+  }
+
+  public byte getLevel() {
+    return level;
+  }
+
+  public void setLevel(byte level) {
+    this.level = level;
+  }
+
+  public byte getSignal() {
+    return signal;
+  }
+
+  public void setSignal(byte signal) {
+    this.signal = signal;
+  }
+}
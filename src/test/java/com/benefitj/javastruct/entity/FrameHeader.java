@@ -0,0 +1,38 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+
+/**
+ * 数据帧的头部
+ */
+@JavaStructClass
+public class FrameHeader {
+
+  /**
+   * 序号
+   */
+  @JavaStructField(size = 4)
+  private int sn;
+  /**
+   * 类型
+   */
+  @JavaStructField(size = 1)
+  private byte type;
+
+  public int getSn() {
+    return sn;
+  }
+
+  public void setSn(int sn) {
+    this.sn = sn;
+  }
+
+  public byte getType() {
+    return type;
+  }
+
+  public void setType(byte type) {
+    this.type = type;
+  }
+}
@@ -0,0 +1,23 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.JavaStructView;
+import com.benefitj.javastruct.StructView;
+
+/**
+ * 导联波形的视图
+ */
+@JavaStructView(LeadWave.class)
+public interface LeadWaveView extends StructView<LeadWaveView> {
+
+  long getTime();
+
+  byte[] getState();
+
+  short[] getWave();
+
+  /**
+   * 读取波形到传入的数组
+   */
+  short[] getWave(short[] dst);
+
+}
@@ -0,0 +1,53 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.FieldByteOrder;
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 基本数据类型
+ */
+@Setter
+@Getter
+@JavaStructClass
+public class Primitives {
+
+  @JavaStructField(size = 1)
+  private byte b;
+
+  @JavaStructField(size = 2, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private short s;
+
+  @JavaStructField(size = 3)
+  private int i;
+
+  @JavaStructField(size = 3, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private int i3;
+
+  @JavaStructField(size = 8, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private long l;
+
+  @JavaStructField(size = 4)
+  private float f;
+
+  @JavaStructField(size = 8, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private double d;
+
+  @JavaStructField(size = 2, arrayLength = 3, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private short[] shorts;
+
+  @JavaStructField(size = 4, arrayLength = 2)
+  private int[] ints;
+
+  @JavaStructField(size = 8, arrayLength = 2, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private long[] longs;
+
+  @JavaStructField(size = 4, arrayLength = 2, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private float[] floats;
+
+  @JavaStructField(size = 8, arrayLength = 2)
+  private double[] doubles;
+
+}
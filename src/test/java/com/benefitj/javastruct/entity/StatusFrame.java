@@ -0,0 +1,51 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+
+/**
+ * 状态帧：编号 + 设备状态(包含位域)
+ */
+@JavaStructClass
+public class StatusFrame {
+
+  /**
+   * 编号
+   */
+  @JavaStructField(size = 2)
+  private short id;
+  /**
+   * 设备状态
+   */
+  @JavaStructField
+  private DeviceStatus status;
+  /**
+   * 历史状态
+   */
+  @JavaStructField(arrayLength = 2)
+  private DeviceStatus[] history;
+
+  public short getId() {
+    return id;
+  }
+
+  public void setId(short id) {
+    this.id = id;
+  }
+
+  public DeviceStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(DeviceStatus status) {
+    this.status = status;
+  }
+
+  public DeviceStatus[] getHistory() {
+    return history;
+  }
+
+  public void setHistory(DeviceStatus[] history) {
+    this.history = history;
+  }
+}
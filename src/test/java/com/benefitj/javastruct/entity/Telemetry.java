@@ -0,0 +1,77 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+
+/**
+ * 变长的遥测数据
+ */
+@JavaStructClass
+public class Telemetry {
+
+  /**
+   * 设备ID
+   */
+  @JavaStructField(size = 2)
+  private int id;
+  /**
+   * 采样数量
+   */
+  @JavaStructField(size = 1)
+  private int count;
+  /**
+   * 采样数据，数量由 count 决定
+   */
+  @JavaStructField(size = 2, lengthField = "count", arrayLength = 100)
+  private short[] samples;
+  /**
+   * 名称，1个字节的长度前缀
+   */
+  @JavaStructField(lengthPrefix = 1)
+  private String name;
+  /**
+   * 校验
+   */
+  @JavaStructField(size = 4)
+  private int crc;
+
+  public int getId() {
+    return id;
+  }
+
+  public void setId(int id) {
+    this.id = id;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public void setCount(int count) {
+    this.count = count;
+  }
+
+  public short[] getSamples() {
+    return samples;
+  }
+
+  public void setSamples(short[] samples) {
+    this.samples = samples;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public int getCrc() {
+    return crc;
+  }
+
+  public void setCrc(int crc) {
+    this.crc = crc;
+  }
+}
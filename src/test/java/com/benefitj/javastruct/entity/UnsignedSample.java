@@ -0,0 +1,91 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.FieldByteOrder;
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+
+/**
+ * 无符号整数：uint8/uint16/uint32 直接读到更宽的基本类型
+ */
+@JavaStructClass
+public class UnsignedSample {
+
+  /**
+   * 标志，uint8
+   */
+  @JavaStructField(size = 1, unsigned = true)
+  private short flags;
+  /**
+   * 计数，uint16
+   */
+  @JavaStructField(size = 2, unsigned = true)
+  private int counter;
+  /**
+   * 时间(秒)，uint32
+   */
+  @JavaStructField(size = 4, unsigned = true)
+  private long time;
+  /**
+   * 采样值，小端 uint16
+   */
+  @JavaStructField(size = 2, arrayLength = 4, unsigned = true, byteOrder = FieldByteOrder.LITTLE_ENDIAN)
+  private int[] samples;
+  /**
+   * 时间戳，uint32
+   */
+  @JavaStructField(size = 4, arrayLength = 2, unsigned = true)
+  private long[] stamps;
+  /**
+   * 差值，int16
+   */
+  @JavaStructField(size = 2, arrayLength = 2)
+  private int[] deltas;
+
+  public short getFlags() {
+    return flags;
+  }
+
+  public void setFlags(short flags) {
+    this.flags = flags;
+  }
+
+  public int getCounter() {
+    return counter;
+  }
+
+  public void setCounter(int counter) {
+    this.counter = counter;
+  }
+
+  public long getTime() {
+    return time;
+  }
+
+  public void setTime(long time) {
+    this.time = time;
+  }
+
+  public int[] getSamples() {
+    return samples;
+  }
+
+  public void setSamples(int[] samples) {
+    this.samples = samples;
+  }
+
+  public long[] getStamps() {
+    return stamps;
+  }
+
+  public void setStamps(long[] stamps) {
+    this.stamps = stamps;
+  }
+
+  public int[] getDeltas() {
+    return deltas;
+  }
+
+  public void setDeltas(int[] deltas) {
+    this.deltas = deltas;
+  }
+}
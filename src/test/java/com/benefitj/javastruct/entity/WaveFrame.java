@@ -0,0 +1,38 @@
+package com.benefitj.javastruct.entity;
+
+import com.benefitj.javastruct.JavaStructClass;
+import com.benefitj.javastruct.JavaStructField;
+
+/**
+ * 波形数据帧：头部 + 12个导联
+ */
+@JavaStructClass
+public class WaveFrame {
+
+  /**
+   * 头部
+   */
+  @JavaStructField
+  private FrameHeader header;
+  /**
+   * 导联波形
+   */
+  @JavaStructField(arrayLength = 12)
+  private LeadWave[] leads;
+
+  public FrameHeader getHeader() {
+    return header;
+  }
+
+  public void setHeader(FrameHeader header) {
+    this.header = header;
+  }
+
+  public LeadWave[] getLeads() {
+    return leads;
+  }
+
+  public void setLeads(LeadWave[] leads) {
+    this.leads = leads;
+  }
+}